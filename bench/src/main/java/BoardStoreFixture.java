@@ -0,0 +1,94 @@
+import bench.BoardFixture;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Benchmark fixture giving the bench package access to the board stores of Frame,
+ * next to the jagged char[][] layout they replace.
+ */
+public class BoardStoreFixture implements BoardFixture {
+    /**
+     * Board in the jagged layout, null if a store is measured.
+     */
+    private char[][] jagged;
+    /**
+     * Board in a flat store, null if the jagged layout is measured.
+     */
+    private BoardStore store;
+    /**
+     * Number of rows and columns.
+     */
+    private int size;
+
+    @Override
+    public long setUp(String layout, int boardSize) {
+        size = boardSize;
+        jagged = null;
+        store = switch (layout) {
+            case "jagged" -> null;
+            case "flat-char" -> new CharBoardStore(boardSize * boardSize);
+            case "byte" -> new ByteBoardStore(boardSize * boardSize, false);
+            case "byte-offheap" -> new ByteBoardStore(boardSize * boardSize, true);
+            default -> throw new IllegalArgumentException("Unknown layout: " + layout);
+        };
+        if (store == null) {
+            jagged = new char[boardSize][boardSize];
+            for (char[] row : jagged) {
+                Arrays.fill(row, Cell.EMPTY);
+            }
+        }
+
+        Random random = new Random(42);
+        for (int cell = 0; cell < boardSize * boardSize; cell++) {
+            int roll = random.nextInt(100);
+            if (roll < 20) {
+                char c = roll == 0 ? Cell.OBSTACLE : roll < 4 ? Cell.head(roll) : Cell.body(roll % 8);
+                if (store != null) {
+                    store.set(cell, c);
+                } else {
+                    jagged[cell / boardSize][cell % boardSize] = c;
+                }
+            }
+        }
+        if (store != null) {
+            return store.footprint();
+        }
+        // every row is an array with its own 16 byte header, referenced from the outer array
+        return (long) boardSize * (2L * boardSize + 16 + 4) + 16;
+    }
+
+    @Override
+    public int scanRows() {
+        int count = 0;
+        if (store == null) {
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    if (jagged[row][col] != Cell.EMPTY) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+        for (int cell = 0; cell < size * size; cell++) {
+            if (store.get(cell) != Cell.EMPTY) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int scanColumns() {
+        int count = 0;
+        for (int col = 0; col < size; col++) {
+            for (int row = 0; row < size; row++) {
+                if (store == null ? jagged[row][col] != Cell.EMPTY : store.get(row * size + col) != Cell.EMPTY) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
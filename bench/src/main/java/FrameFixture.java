@@ -0,0 +1,125 @@
+import bench.EngineFixture;
+
+/**
+ * Benchmark fixture giving the bench package access to Frame.
+ * <p>
+ * Snake 0 is laid out on a closed path covering rows 8 and below: along row 8, then back and forth through
+ * columns 1 and above, and up column 0. Following the path it never dies, the fruit is kept at (0, 0) out of its way.
+ */
+public class FrameFixture implements EngineFixture {
+    /**
+     * Frame under test.
+     */
+    private Frame frame;
+    /**
+     * Bot controlling snake 0 in the botControl benchmark.
+     */
+    private BotSnake bot;
+    /**
+     * Packed cells of the closed path.
+     */
+    private int[] path;
+    /**
+     * Direction leading from each path cell to the next one.
+     */
+    private char[] directions;
+    /**
+     * Position of the head of snake 0 on the path.
+     */
+    private int position;
+    /**
+     * Number of calls of placeFruit().
+     */
+    private long fruitsPlaced;
+
+    @Override
+    public void setUp(int boardSize, int snakeLength) {
+        if (boardSize < 10 || boardSize % 2 != 0) {
+            throw new IllegalArgumentException("Board size has to be even and at least 10");
+        }
+        frame = new Frame(boardSize, boardSize);
+        bot = new BotSnake(frame, 0);
+        buildPath(boardSize);
+
+        frame.placeSnake(1, new int[0]);
+        frame.placeSnake(2, new int[0]);
+        frame.setFruit(0);
+
+        int length = Math.min(snakeLength, path.length - 2);
+        int[] body = new int[length];
+        for (int i = 0; i < length; i++) {
+            body[i] = path[length - 1 - i];
+        }
+        frame.placeSnake(0, body);
+        position = length - 1;
+        frame.setDirection(0, directions[position]);
+    }
+
+    /**
+     * Builds the closed path and the direction of each of its steps.
+     * @param n - number of rows and columns of the board.
+     */
+    private void buildPath(int n) {
+        path = new int[(n - 8) * n];
+        int i = 0;
+        for (int col = 0; col < n; col++) {
+            path[i++] = 8 * n + col;
+        }
+        for (int row = 9; row < n; row++) {
+            boolean left = (row - 9) % 2 == 0;
+            for (int k = 1; k < n; k++) {
+                int col = left ? n - k : k;
+                path[i++] = row * n + col;
+            }
+        }
+        for (int row = n - 1; row > 8; row--) {
+            path[i++] = row * n;
+        }
+
+        directions = new char[path.length];
+        for (int p = 0; p < path.length; p++) {
+            int from = path[p];
+            int to = path[(p + 1) % path.length];
+            if (to == from + 1) {
+                directions[p] = 'E';
+            } else if (to == from - 1) {
+                directions[p] = 'W';
+            } else if (to > from) {
+                directions[p] = 'S';
+            } else {
+                directions[p] = 'N';
+            }
+        }
+    }
+
+    @Override
+    public void tick() {
+        frame.setDirection(0, directions[position]);
+        frame.tick();
+        position = (position + 1) % path.length;
+    }
+
+    @Override
+    public Object getFrame() {
+        return frame.getFrame();
+    }
+
+    @Override
+    public void placeFruit() {
+        frame.placeFruit();
+        // changed cells are only released by a tick
+        if (++fruitsPlaced % 1024 == 0) {
+            tick();
+        }
+    }
+
+    @Override
+    public boolean isValidMove() {
+        return frame.isValidMove(0, directions[position]);
+    }
+
+    @Override
+    public void botControl() {
+        bot.control();
+    }
+}
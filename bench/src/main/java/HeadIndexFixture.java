@@ -0,0 +1,78 @@
+import bench.ProximityFixture;
+
+/**
+ * Benchmark fixture giving the bench package access to the head queries of Frame.
+ */
+public class HeadIndexFixture implements ProximityFixture {
+    /**
+     * Frame under test.
+     */
+    private Frame frame;
+    /**
+     * Receives the snakes found by a query.
+     */
+    private int[] found = new int[1];
+    /**
+     * Receives the distances found by a query.
+     */
+    private int[] distances = new int[1];
+
+    @Override
+    public void setUp(int boardSize, int snakeCount) {
+        frame = new Frame(boardSize, boardSize, snakeCount);
+    }
+
+    @Override
+    public int queryIndexed(int k, int radius) {
+        ensureCapacity(k);
+        int total = 0;
+        for (int i = 0; i < frame.getSnakeCount(); i++) {
+            total += frame.nearestHeads(i, k, radius, found, distances);
+        }
+        return total;
+    }
+
+    @Override
+    public int queryLinear(int k, int radius) {
+        ensureCapacity(k);
+        int total = 0;
+        for (int i = 0; i < frame.getSnakeCount(); i++) {
+            if (frame.isLost(i)) {
+                continue;
+            }
+            SnakeView self = frame.getSnake(i);
+            int count = 0;
+            for (int j = 0; j < frame.getSnakeCount(); j++) {
+                if (j == i || frame.isLost(j)) {
+                    continue;
+                }
+                SnakeView other = frame.getSnake(j);
+                int d = Math.abs(other.headRow() - self.headRow()) + Math.abs(other.headCol() - self.headCol());
+                if (d > radius || (count == k && d >= distances[k - 1])) {
+                    continue;
+                }
+                int pos = count < k ? count++ : k - 1;
+                while (pos > 0 && distances[pos - 1] > d) {
+                    distances[pos] = distances[pos - 1];
+                    found[pos] = found[pos - 1];
+                    pos--;
+                }
+                distances[pos] = d;
+                found[pos] = j;
+            }
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Grows the result arrays to hold k entries.
+     * @param k - maximal number of heads per query.
+     */
+    private void ensureCapacity(int k) {
+        if (found.length < k) {
+            found = new int[k];
+            distances = new int[k];
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package bench;
+
+/**
+ * Board storage layouts measured by BoardLayoutBenchmark, implemented by BoardStoreFixture in the default package.
+ */
+public interface BoardFixture {
+    /**
+     * Builds a boardSize x boardSize board in the given layout with about a fifth of the cells occupied.
+     * @param layout - "jagged" for char[][], "flat-char", "byte" or "byte-offheap" for the stores of Frame.
+     * @param boardSize - number of rows and columns.
+     * @return number of bytes holding the cells.
+     */
+    long setUp(String layout, int boardSize);
+
+    /**
+     * Counts the occupied cells row by row.
+     * @return number of occupied cells.
+     */
+    int scanRows();
+
+    /**
+     * Counts the occupied cells column by column.
+     * @return number of occupied cells.
+     */
+    int scanColumns();
+}
@@ -0,0 +1,73 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of full board scans in row-major and column-major order for each storage layout,
+ * the footprint of the layout is printed when the board is built.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BoardLayoutBenchmark {
+    /**
+     * Storage layout of the board.
+     */
+    @Param({"jagged", "flat-char", "byte", "byte-offheap"})
+    public String layout;
+
+    /**
+     * Number of rows and columns of the board.
+     */
+    @Param({"1000", "4000"})
+    public int boardSize;
+
+    /**
+     * Board under test.
+     */
+    private BoardFixture fixture;
+
+    /**
+     * Builds a fresh board for every trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = Fixtures.create(BoardFixture.class, "BoardStoreFixture");
+        long footprint = fixture.setUp(layout, boardSize);
+        System.out.printf("%n%s %dx%d: %d bytes%n", layout, boardSize, boardSize, footprint);
+    }
+
+    /**
+     * Scan in the order the cells are stored.
+     * @return number of occupied cells.
+     */
+    @Benchmark
+    public int scanRows() {
+        return fixture.scanRows();
+    }
+
+    /**
+     * Scan striding across the rows.
+     * @return number of occupied cells.
+     */
+    @Benchmark
+    public int scanColumns() {
+        return fixture.scanColumns();
+    }
+}
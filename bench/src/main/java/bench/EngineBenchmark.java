@@ -0,0 +1,96 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the hot paths of the engine on boards from 20x20 to 2000x2000 with snakes up to 100 000 segments.
+ * Snake lengths that do not fit on a board are clipped to the longest snake that does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class EngineBenchmark {
+    /**
+     * Number of rows and columns of the board.
+     */
+    @Param({"20", "200", "2000"})
+    public int boardSize;
+    /**
+     * Length of the moving snake.
+     */
+    @Param({"3", "1000", "100000"})
+    public int snakeLength;
+
+    /**
+     * Engine under test.
+     */
+    private EngineFixture fixture;
+
+    /**
+     * Builds a fresh board for every trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = Fixtures.create(EngineFixture.class, "FrameFixture");
+        fixture.setUp(boardSize, snakeLength);
+    }
+
+    /**
+     * Frame.tick(), dominated by Frame.moveSnake.
+     */
+    @Benchmark
+    public void tick() {
+        fixture.tick();
+    }
+
+    /**
+     * Frame.tick() followed by Frame.getFrame(), as done by the renderer.
+     * @return the published snapshot.
+     */
+    @Benchmark
+    public Object tickAndGetFrame() {
+        fixture.tick();
+        return fixture.getFrame();
+    }
+
+    /**
+     * Frame.placeFruit().
+     */
+    @Benchmark
+    public void placeFruit() {
+        fixture.placeFruit();
+    }
+
+    /**
+     * Frame.isValidMove().
+     * @return whether the move is valid.
+     */
+    @Benchmark
+    public boolean isValidMove() {
+        return fixture.isValidMove();
+    }
+
+    /**
+     * BotSnake.control(), the decision latency of the pathfinding bot including its fallback search.
+     */
+    @Benchmark
+    public void botControl() {
+        fixture.botControl();
+    }
+}
@@ -0,0 +1,40 @@
+package bench;
+
+/**
+ * Operations of the game engine measured by EngineBenchmark, implemented by FrameFixture in the default package.
+ */
+public interface EngineFixture {
+    /**
+     * Builds a board of boardSize x boardSize cells with snake 0 of the given length moving along a closed path.
+     * @param boardSize - number of rows and columns, has to be even and at least 10.
+     * @param snakeLength - requested snake length, clipped to what fits on the path.
+     */
+    void setUp(int boardSize, int snakeLength);
+
+    /**
+     * Steers snake 0 along its path and advances the frame by one tick.
+     */
+    void tick();
+
+    /**
+     * Returns the latest published board snapshot.
+     * @return the snapshot.
+     */
+    Object getFrame();
+
+    /**
+     * Moves the fruit to a new random free cell.
+     */
+    void placeFruit();
+
+    /**
+     * Checks the next move of snake 0.
+     * @return true if the move is valid.
+     */
+    boolean isValidMove();
+
+    /**
+     * Lets a BotSnake choose the next direction of snake 0.
+     */
+    void botControl();
+}
@@ -0,0 +1,31 @@
+package bench;
+
+/**
+ * Bridge from the benchmarks to the game classes.
+ * <p>
+ * JMH cannot generate benchmarks in the default package and named packages cannot reference the game classes,
+ * so every benchmark works on a fixture interface of this package, implemented by a class in the default package
+ * which is loaded here by name.
+ */
+final class Fixtures {
+    /**
+     * Class constructor, not used.
+     */
+    private Fixtures() {
+    }
+
+    /**
+     * Creates a fixture implemented in the default package.
+     * @param type - fixture interface.
+     * @param implementation - name of the class implementing it in the default package.
+     * @param <T> - type of the fixture.
+     * @return a new fixture.
+     */
+    static <T> T create(Class<T> type, String implementation) {
+        try {
+            return type.cast(Class.forName(implementation).getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(implementation + " is not available", e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of one tick worth of head proximity queries, every snake asking for its K nearest heads within RADIUS,
+ * with the spatial hash against a linear scan, for up to 10 000 snakes on a 300x300 board.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ProximityBenchmark {
+    /**
+     * Number of rows and columns of the board.
+     */
+    private static final int BOARD_SIZE = 300;
+    /**
+     * Number of heads asked for by each query.
+     */
+    private static final int K = 4;
+    /**
+     * Radius of each query.
+     */
+    private static final int RADIUS = 10;
+
+    /**
+     * Number of snakes on the board, each of them asking a query.
+     */
+    @Param({"3", "100", "1000", "10000"})
+    public int snakeCount;
+
+    /**
+     * Engine under test.
+     */
+    private ProximityFixture fixture;
+
+    /**
+     * Builds a fresh board for every trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = Fixtures.create(ProximityFixture.class, "HeadIndexFixture");
+        fixture.setUp(BOARD_SIZE, snakeCount);
+    }
+
+    /**
+     * Queries answered by the spatial hash of Frame.
+     * @return number of heads found.
+     */
+    @Benchmark
+    public int indexed() {
+        return fixture.queryIndexed(K, RADIUS);
+    }
+
+    /**
+     * The same queries answered by scanning every snake.
+     * @return number of heads found.
+     */
+    @Benchmark
+    public int linear() {
+        return fixture.queryLinear(K, RADIUS);
+    }
+}
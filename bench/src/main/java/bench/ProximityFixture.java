@@ -0,0 +1,29 @@
+package bench;
+
+/**
+ * Head proximity queries measured by ProximityBenchmark, implemented by HeadIndexFixture in the default package.
+ */
+public interface ProximityFixture {
+    /**
+     * Builds a boardSize x boardSize board holding snakeCount snakes.
+     * @param boardSize - number of rows and columns.
+     * @param snakeCount - number of snakes, has to fit on the board.
+     */
+    void setUp(int boardSize, int snakeCount);
+
+    /**
+     * Asks for the k nearest heads within the radius of every snake through the spatial hash of the frame.
+     * @param k - maximal number of heads per query.
+     * @param radius - maximal distance of a head.
+     * @return total number of heads found.
+     */
+    int queryIndexed(int k, int radius);
+
+    /**
+     * Asks the same queries as queryIndexed() by scanning all snakes, as Frame.distanceToFrog() used to.
+     * @param k - maximal number of heads per query.
+     * @param radius - maximal distance of a head.
+     * @return total number of heads found.
+     */
+    int queryLinear(int k, int radius);
+}
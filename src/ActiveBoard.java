@@ -0,0 +1,410 @@
+import java.awt.Canvas;
+import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+/**
+ * Class rendering the board actively, on its own thread, as often as the display refreshes.
+ * <p>
+ * The canvas shows the part of the board chosen by a Camera, laid out like GameBoard and cached in chunks by the same
+ * BoardChunks. The visible part is kept in an accelerated VolatileImage which is updated only in the cells changed
+ * since the previous tick, and redrawn from the visible chunks when the view moves or the image is lost, so the cost
+ * of a frame depends on the size of the canvas, not of the board.
+ * Every frame copies the image into the back buffer of a BufferStrategy, draws the heads moved by the latest tick
+ * sliding from their previous cell towards the new one in proportion to the time elapsed since the tick, and shows the buffer.
+ * Frames are paced to the refresh rate of the screen, 60 Hz if unknown. Frame intervals and render times are recorded
+ * in EngineMetrics.
+ * Unlike GameBoard this does not depend on Swing repaints, so it does not need refresh() calls.
+ */
+public class ActiveBoard extends Canvas {
+    /**
+     * Attribute that represents the current frame state.
+     */
+    private final Frame gameFrame;
+    /**
+     * Duration of a tick in nanoseconds, used to interpolate the heads.
+     */
+    private final long tickNanos;
+    /**
+     * Colors of the cell states.
+     */
+    private final CellColors colors = new CellColors();
+    /**
+     * Cached image of the board in chunks.
+     */
+    private final BoardChunks chunks;
+    /**
+     * Visible part of the board.
+     */
+    private final Camera camera = new Camera(Integer.getInteger("snak3.follow", 2));
+    /**
+     * Thread running the render loop, null if not running.
+     */
+    private Thread renderThread;
+    /**
+     * True while the render loop should keep running.
+     */
+    private volatile boolean running;
+    /**
+     * Action notified with the number of the shown tick after every frame, may be null.
+     */
+    private volatile LongConsumer paintListener;
+
+    /**
+     * Cached image of the visible part of the board, null until first rendered.
+     */
+    private VolatileImage boardImage;
+    /**
+     * True if the cached image shows the visible chunks, false if it has to be redrawn from them.
+     */
+    private boolean imageValid;
+    /**
+     * Width of a single cell in the cached image.
+     */
+    private int cellWidth;
+    /**
+     * Height of a single cell in the cached image.
+     */
+    private int cellHeight;
+    /**
+     * Number of the tick drawn into the cached chunks, -1 if they have to be redrawn.
+     */
+    private long paintedEpoch = -1;
+    /**
+     * Time at which the render loop first saw the tick drawn into the cached image.
+     */
+    private long paintedNanos;
+    /**
+     * Cells of the heads moved by the drawn tick, only the first moverCount entries are valid.
+     */
+    private int[] moverHeads = new int[16];
+    /**
+     * Cells the moved heads came from.
+     */
+    private int[] moverTails = new int[16];
+    /**
+     * Number of heads moved by the drawn tick.
+     */
+    private int moverCount;
+    /**
+     * Head cell of each snake as of the drawn tick, -1 if unknown.
+     */
+    private int[] headCells = new int[0];
+
+    /**
+     * Class constructor.
+     * @param gameFrame - sets current frame state.
+     * @param tickMillis - duration of a tick in milliseconds.
+     */
+    public ActiveBoard(Frame gameFrame, long tickMillis) {
+        this.gameFrame = gameFrame;
+        this.tickNanos = tickMillis * 1_000_000;
+        this.chunks = new BoardChunks(gameFrame.getRows(), gameFrame.getCols());
+        setIgnoreRepaint(true);
+    }
+
+    /**
+     * Starts the render loop, the canvas has to be displayable.
+     */
+    public synchronized void start() {
+        if (renderThread != null) {
+            return;
+        }
+        createBufferStrategy(2);
+        running = true;
+        renderThread = new Thread(this::renderLoop, "render-loop");
+        renderThread.setDaemon(true);
+        renderThread.start();
+    }
+
+    /**
+     * Stops the render loop and waits for it to finish.
+     */
+    public synchronized void stop() {
+        running = false;
+        if (renderThread == null) {
+            return;
+        }
+        try {
+            renderThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        renderThread = null;
+    }
+
+    /**
+     * Sets the action notified with the number of the shown tick after every frame.
+     * @param paintListener - the action, null for none.
+     */
+    public void setPaintListener(LongConsumer paintListener) {
+        this.paintListener = paintListener;
+    }
+
+    /**
+     * Renders frames until stopped, paced to the refresh rate of the screen.
+     */
+    private void renderLoop() {
+        int refreshRate = getGraphicsConfiguration() == null ? 0
+                : getGraphicsConfiguration().getDevice().getDisplayMode().getRefreshRate();
+        long frameNanos = 1_000_000_000L / (refreshRate > 0 ? refreshRate : 60);
+        long next = System.nanoTime();
+        long previous = 0;
+        while (running) {
+            long start = System.nanoTime();
+            if (EngineMetrics.ENABLED && previous != 0) {
+                EngineMetrics.get().frameInterval.record(start - previous);
+            }
+            previous = start;
+            try {
+                renderFrame(start);
+            } catch (RuntimeException e) {
+                // a lost display must not kill the loop silently
+                System.out.println("Error during rendering: " + e.getMessage());
+            }
+            if (EngineMetrics.ENABLED) {
+                EngineMetrics.get().render.record(System.nanoTime() - start);
+            }
+
+            next += frameNanos;
+            long now = System.nanoTime();
+            if (now - next > frameNanos) {
+                // too far behind, do not try to catch up
+                next = now;
+            }
+            LockSupport.parkNanos(next - now);
+        }
+    }
+
+    /**
+     * Renders and shows a single frame.
+     * @param now - time of the frame.
+     */
+    private void renderFrame(long now) {
+        BufferStrategy strategy = getBufferStrategy();
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        int width = getWidth();
+        int height = getHeight();
+        if (strategy == null || configuration == null || width <= 0 || height <= 0) {
+            return;
+        }
+        FrameSnapshot pixels = gameFrame.getFrame();
+        do {
+            int status = boardImage == null || boardImage.getWidth() != width || boardImage.getHeight() != height
+                    ? VolatileImage.IMAGE_INCOMPATIBLE : boardImage.validate(configuration);
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                if (boardImage != null) {
+                    boardImage.flush();
+                }
+                boardImage = createVolatileImage(width, height);
+                layOut(pixels, width, height);
+            } else if (status == VolatileImage.IMAGE_RESTORED) {
+                // the surface was restored with undefined contents
+                imageValid = false;
+            }
+            updateBoard(pixels, now);
+
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                g.drawImage(boardImage, 0, 0, null);
+                drawMovers(g, pixels, now);
+                g.dispose();
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost() || boardImage.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+
+        LongConsumer listener = paintListener;
+        if (listener != null) {
+            listener.accept(paintedEpoch);
+        }
+    }
+
+    /**
+     * Chooses the size of the cells and of the view for the size of the canvas, like GameBoard does.
+     * @param pixels - latest frame state.
+     * @param width - width of the canvas.
+     * @param height - height of the canvas.
+     */
+    private void layOut(FrameSnapshot pixels, int width, int height) {
+        int rows = pixels.getRows();
+        int cols = pixels.getCols();
+        cellWidth = width / cols;
+        cellHeight = height / rows;
+        if (Math.min(cellWidth, cellHeight) < GameBoard.MIN_CELL_SIZE) {
+            cellWidth = GameBoard.MIN_CELL_SIZE;
+            cellHeight = GameBoard.MIN_CELL_SIZE;
+        }
+        camera.resize(Math.min(rows, (height + cellHeight - 1) / cellHeight),
+                Math.min(cols, (width + cellWidth - 1) / cellWidth));
+        chunks.reset(Math.min(cellWidth, cellHeight));
+        paintedEpoch = -1;
+        imageValid = false;
+    }
+
+    /**
+     * Brings the cached chunks and image up to date with the snapshot, redrawing only the changed cells when possible,
+     * and collects the heads moved by the latest tick.
+     * @param pixels - latest frame state.
+     * @param now - time of the frame.
+     */
+    private void updateBoard(FrameSnapshot pixels, long now) {
+        boolean fresh = pixels.getEpoch() != paintedEpoch;
+        if (!fresh && imageValid) {
+            return;
+        }
+        boolean known = paintedEpoch >= 0 && pixels.getChangedSince() >= 0 && pixels.getChangedSince() <= paintedEpoch;
+        boolean interpolate = known && pixels.getEpoch() == paintedEpoch + 1;
+        if (fresh && !known) {
+            chunks.invalidate();
+        }
+        if (camera.update(pixels)) {
+            chunks.retain(camera.getFirstChunkRow(), camera.getLastChunkRow(), camera.getFirstChunkCol(), camera.getLastChunkCol());
+            imageValid = false;
+        }
+        int cols = pixels.getCols();
+        Graphics g = boardImage.getGraphics();
+        if (fresh) {
+            moverCount = 0;
+        }
+        for (int i = 0; fresh && i < pixels.getChangedCount(); i++) {
+            int cell = pixels.getChangedCell(i);
+            char c = pixels.get(cell / cols, cell % cols);
+            if (known) {
+                chunks.update(cell, c);
+                if (imageValid) {
+                    paintCell(g, cell / cols, cell % cols, c);
+                }
+            }
+            if (!Cell.isHead(c)) {
+                continue;
+            }
+            int owner = Cell.owner(c);
+            if (owner >= headCells.length) {
+                int length = headCells.length;
+                headCells = Arrays.copyOf(headCells, Math.max(owner + 1, 2 * length));
+                Arrays.fill(headCells, length, headCells.length, -1);
+            }
+            int from = headCells[owner];
+            headCells[owner] = cell;
+            if (interpolate && from >= 0 && from != cell && isNeighbour(from, cell, cols)) {
+                addMover(from, cell);
+            }
+        }
+        for (int chunkRow = camera.getFirstChunkRow(); chunkRow <= camera.getLastChunkRow(); chunkRow++) {
+            for (int chunkCol = camera.getFirstChunkCol(); chunkCol <= camera.getLastChunkCol(); chunkCol++) {
+                if (chunks.isDirty(chunkRow, chunkCol)) {
+                    chunks.render(pixels, chunkRow, chunkCol);
+                    imageValid = false;
+                }
+            }
+        }
+        if (!imageValid) {
+            drawChunks(g);
+            imageValid = true;
+        }
+        g.dispose();
+        if (fresh) {
+            paintedEpoch = pixels.getEpoch();
+            paintedNanos = now;
+        }
+    }
+
+    /**
+     * Redraws the cached image from the visible chunks.
+     * @param g - graphics of the cached image.
+     */
+    private void drawChunks(Graphics g) {
+        g.setColor(getBackground());
+        g.fillRect(0, 0, boardImage.getWidth(), boardImage.getHeight());
+        int block = chunks.getBlock();
+        for (int chunkRow = camera.getFirstChunkRow(); chunkRow <= camera.getLastChunkRow(); chunkRow++) {
+            for (int chunkCol = camera.getFirstChunkCol(); chunkCol <= camera.getLastChunkCol(); chunkCol++) {
+                BufferedImage image = chunks.getImage(chunkRow, chunkCol);
+                if (image == null) {
+                    continue;
+                }
+                int x = (chunkCol * BoardChunks.CHUNK - camera.getCol()) * cellWidth;
+                int y = (chunkRow * BoardChunks.CHUNK - camera.getRow()) * cellHeight;
+                g.drawImage(image, x, y, image.getWidth() / block * cellWidth, image.getHeight() / block * cellHeight, null);
+            }
+        }
+    }
+
+    /**
+     * Checks whether two cells are next to each other.
+     * @param a - packed cell.
+     * @param b - packed cell.
+     * @param cols - number of columns.
+     * @return true if the cells share a side, false otherwise.
+     */
+    private static boolean isNeighbour(int a, int b, int cols) {
+        return Math.abs(a / cols - b / cols) + Math.abs(a % cols - b % cols) == 1;
+    }
+
+    /**
+     * Remembers a head moved by the latest tick.
+     * @param from - cell the head came from.
+     * @param to - cell of the head.
+     */
+    private void addMover(int from, int to) {
+        if (moverCount == moverHeads.length) {
+            moverHeads = Arrays.copyOf(moverHeads, 2 * moverCount);
+            moverTails = Arrays.copyOf(moverTails, 2 * moverCount);
+        }
+        moverTails[moverCount] = from;
+        moverHeads[moverCount++] = to;
+    }
+
+    /**
+     * Draws every head moved by the latest tick between its previous and its new cell.
+     * @param g - graphics of the back buffer.
+     * @param pixels - latest frame state.
+     * @param now - time of the frame.
+     */
+    private void drawMovers(Graphics g, FrameSnapshot pixels, long now) {
+        if (moverCount == 0) {
+            return;
+        }
+        double progress = Math.min(1.0, (now - paintedNanos) / (double) tickNanos);
+        int cols = pixels.getCols();
+        for (int i = 0; i < moverCount; i++) {
+            int to = moverHeads[i];
+            int from = moverTails[i];
+            int toRow = to / cols;
+            int toCol = to % cols;
+            char c = pixels.get(toRow, toCol);
+            // the new cell is revealed as the head slides into it
+            paintCell(g, toRow, toCol, Cell.EMPTY);
+            int x = (int) Math.round(((from % cols - camera.getCol()) + (toCol - from % cols) * progress) * cellWidth);
+            int y = (int) Math.round(((from / cols - camera.getRow()) + (toRow - from / cols) * progress) * cellHeight);
+            g.setColor(colors.get(c));
+            g.fillRect(x, y, cellWidth, cellHeight);
+        }
+    }
+
+    /**
+     * Paints a single cell together with its grid line if it is visible.
+     * @param g - graphics to paint with.
+     * @param row - row of the cell.
+     * @param col - column of the cell.
+     * @param c - state of the cell.
+     */
+    private void paintCell(Graphics g, int row, int col, char c) {
+        if (!camera.isVisible(row, col)) {
+            return;
+        }
+        int x = (col - camera.getCol()) * cellWidth;
+        int y = (row - camera.getRow()) * cellHeight;
+        g.setColor(colors.get(c));
+        g.fillRect(x, y, cellWidth, cellHeight);
+        g.setColor(CellColors.GRID);
+        g.drawRect(x, y, cellWidth, cellHeight);
+    }
+}
@@ -0,0 +1,236 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Class caching the image of the board in square chunks of CHUNK x CHUNK cells.
+ * <p>
+ * Only chunks that are on the screen hold an image, each drawn with one block of pixels per cell. A changed cell is
+ * written straight into the image of its chunk if the image is up to date, otherwise the chunk is only flagged
+ * as dirty and redrawn as a whole once it becomes visible. Memory and drawing costs therefore depend on the size
+ * of the view, not of the board.
+ */
+public class BoardChunks {
+    /**
+     * Number of rows and columns of cells in a chunk.
+     */
+    static final int CHUNK = 32;
+    /**
+     * Packed RGB value of the grid lines.
+     */
+    private static final int GRID_RGB = CellColors.GRID.getRGB();
+
+    /**
+     * Number of rows on the board.
+     */
+    private final int rows;
+    /**
+     * Number of columns on the board.
+     */
+    private final int cols;
+    /**
+     * Number of rows of chunks.
+     */
+    private final int chunkRows;
+    /**
+     * Number of columns of chunks.
+     */
+    private final int chunkCols;
+    /**
+     * Image of each chunk, null if the chunk is not cached.
+     */
+    private final BufferedImage[] images;
+    /**
+     * Pixels of the image of each chunk in row-major order, null if the chunk is not cached.
+     */
+    private final int[][] rasters;
+    /**
+     * True for each chunk whose image is missing or out of date.
+     */
+    private final boolean[] dirty;
+    /**
+     * Chunks holding an image.
+     */
+    private IntList resident = new IntList(16);
+    /**
+     * Chunks kept by the last call of retain(), swapped with resident.
+     */
+    private IntList retained = new IntList(16);
+    /**
+     * Number of rows and columns of pixels representing a cell.
+     */
+    private int block = 1;
+    /**
+     * Colors of the cell states.
+     */
+    private final CellColors colors = new CellColors();
+
+    /**
+     * Class constructor, creates a cache without any images.
+     * @param rows - number of rows on the board.
+     * @param cols - number of columns on the board.
+     */
+    public BoardChunks(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.chunkRows = (rows + CHUNK - 1) / CHUNK;
+        this.chunkCols = (cols + CHUNK - 1) / CHUNK;
+        this.images = new BufferedImage[chunkRows * chunkCols];
+        this.rasters = new int[images.length][];
+        this.dirty = new boolean[images.length];
+        Arrays.fill(dirty, true);
+    }
+
+    /**
+     * Drops every image and sets the number of pixels per cell of the new ones.
+     * @param block - number of rows and columns of pixels representing a cell.
+     */
+    public void reset(int block) {
+        this.block = block;
+        for (int i = 0; i < resident.size(); i++) {
+            images[resident.get(i)] = null;
+            rasters[resident.get(i)] = null;
+        }
+        resident.clear();
+        Arrays.fill(dirty, true);
+    }
+
+    /**
+     * Marks every chunk as out of date.
+     */
+    public void invalidate() {
+        Arrays.fill(dirty, true);
+    }
+
+    /**
+     * Applies a changed cell, writing it into the image of its chunk if that image is up to date.
+     * @param cell - packed cell.
+     * @param c - new state of the cell.
+     * @return true if the image was updated, false if the chunk is left dirty.
+     */
+    public boolean update(int cell, char c) {
+        int row = cell / cols;
+        int col = cell % cols;
+        int chunk = (row / CHUNK) * chunkCols + col / CHUNK;
+        if (images[chunk] == null || dirty[chunk]) {
+            dirty[chunk] = true;
+            return false;
+        }
+        paintCell(chunk, row % CHUNK, col % CHUNK, c);
+        return true;
+    }
+
+    /**
+     * Checks whether a chunk has to be redrawn before it is shown.
+     * @param chunkRow - row of the chunk.
+     * @param chunkCol - column of the chunk.
+     * @return true if it has, false otherwise.
+     */
+    public boolean isDirty(int chunkRow, int chunkCol) {
+        return dirty[chunkRow * chunkCols + chunkCol];
+    }
+
+    /**
+     * Draws every cell of a chunk into its image, creating the image if needed.
+     * @param pixels - frame state to be drawn.
+     * @param chunkRow - row of the chunk.
+     * @param chunkCol - column of the chunk.
+     */
+    public void render(FrameSnapshot pixels, int chunkRow, int chunkCol) {
+        int chunk = chunkRow * chunkCols + chunkCol;
+        int firstRow = chunkRow * CHUNK;
+        int firstCol = chunkCol * CHUNK;
+        int height = Math.min(CHUNK, rows - firstRow);
+        int width = Math.min(CHUNK, cols - firstCol);
+        if (images[chunk] == null) {
+            images[chunk] = new BufferedImage(width * block, height * block, BufferedImage.TYPE_INT_RGB);
+            rasters[chunk] = ((DataBufferInt) images[chunk].getRaster().getDataBuffer()).getData();
+            resident.add(chunk);
+        }
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                paintCell(chunk, row, col, pixels.get(firstRow + row, firstCol + col));
+            }
+        }
+        dirty[chunk] = false;
+    }
+
+    /**
+     * Drops the images of all chunks outside the given range.
+     * @param firstRow - first chunk row to be kept.
+     * @param lastRow - last chunk row to be kept.
+     * @param firstCol - first chunk column to be kept.
+     * @param lastCol - last chunk column to be kept.
+     */
+    public void retain(int firstRow, int lastRow, int firstCol, int lastCol) {
+        retained.clear();
+        for (int i = 0; i < resident.size(); i++) {
+            int chunk = resident.get(i);
+            int chunkRow = chunk / chunkCols;
+            int chunkCol = chunk % chunkCols;
+            if (chunkRow >= firstRow && chunkRow <= lastRow && chunkCol >= firstCol && chunkCol <= lastCol) {
+                retained.add(chunk);
+            } else {
+                images[chunk] = null;
+                rasters[chunk] = null;
+                dirty[chunk] = true;
+            }
+        }
+        IntList swap = resident;
+        resident = retained;
+        retained = swap;
+    }
+
+    /**
+     * Returns the image of a chunk.
+     * @param chunkRow - row of the chunk.
+     * @param chunkCol - column of the chunk.
+     * @return the image, null if the chunk is not cached.
+     */
+    public BufferedImage getImage(int chunkRow, int chunkCol) {
+        return images[chunkRow * chunkCols + chunkCol];
+    }
+
+    /**
+     * Returns the number of rows and columns of pixels representing a cell in the images.
+     * @return size of a cell in the images.
+     */
+    public int getBlock() {
+        return block;
+    }
+
+    /**
+     * Returns the number of chunks holding an image.
+     * @return number of cached chunks.
+     */
+    public int getResidentCount() {
+        return resident.size();
+    }
+
+    /**
+     * Writes the pixels of a single cell together with its grid lines into the image of its chunk.
+     * @param chunk - index of the chunk.
+     * @param row - row of the cell within the chunk.
+     * @param col - column of the cell within the chunk.
+     * @param c - state of the cell.
+     */
+    private void paintCell(int chunk, int row, int col, char c) {
+        int[] raster = rasters[chunk];
+        int rgb = colors.rgb(c);
+        int imageWidth = images[chunk].getWidth();
+        int start = row * block * imageWidth + col * block;
+        if (block < 3) {
+            // too small for a visible grid
+            for (int y = 0; y < block; y++) {
+                Arrays.fill(raster, start + y * imageWidth, start + y * imageWidth + block, rgb);
+            }
+            return;
+        }
+        Arrays.fill(raster, start, start + block, GRID_RGB);
+        for (int y = 1; y < block; y++) {
+            int offset = start + y * imageWidth;
+            raster[offset] = GRID_RGB;
+            Arrays.fill(raster, offset + 1, offset + block, rgb);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Class representing the state of every board cell in a single flat row-major store.
+ * <p>
+ * Cells are read and written as the characters defined by Cell, each implementation chooses its own encoding.
+ * Games with up to ByteBoardStore.MAX_SNAKES snakes use one byte per cell, optionally off-heap,
+ * larger games fall back to one char per cell. The queries used by collision checks are answered straight from the store.
+ */
+public abstract class BoardStore {
+    /**
+     * Number of cells.
+     */
+    protected final int size;
+
+    /**
+     * Class constructor.
+     * @param size - number of cells.
+     */
+    protected BoardStore(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Creates the most compact store able to hold a game.
+     * One byte per cell is stored off the Java heap if the JVM was started with -Dsnak3.offheap=true.
+     * @param size - number of cells.
+     * @param snakeCount - number of snakes of the game.
+     * @return a new store with every cell empty.
+     */
+    public static BoardStore create(int size, int snakeCount) {
+        if (snakeCount <= ByteBoardStore.MAX_SNAKES) {
+            return new ByteBoardStore(size, Boolean.getBoolean("snak3.offheap"));
+        }
+        return new CharBoardStore(size);
+    }
+
+    /**
+     * Returns the number of cells.
+     * @return number of cells.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the state of a cell.
+     * @param cell - packed cell.
+     * @return character of the cell.
+     */
+    public abstract char get(int cell);
+
+    /**
+     * Sets the state of a cell.
+     * @param cell - packed cell.
+     * @param c - character of the cell.
+     */
+    public abstract void set(int cell, char c);
+
+    /**
+     * Checks whether a snake can move onto a cell, that is whether it is empty or holds the fruit.
+     * @param cell - packed cell.
+     * @return true if it can, false otherwise.
+     */
+    public abstract boolean isFree(int cell);
+
+    /**
+     * Checks whether a cell holds an obstacle.
+     * @param cell - packed cell.
+     * @return true if it does, false otherwise.
+     */
+    public abstract boolean isObstacle(int cell);
+
+    /**
+     * Returns the index of the snake occupying a cell.
+     * @param cell - packed cell.
+     * @return index of the snake, -1 if there is none.
+     */
+    public abstract int owner(int cell);
+
+    /**
+     * Copies the state of a cell from a store of the same kind.
+     * @param source - store to be copied from.
+     * @param cell - packed cell.
+     */
+    public abstract void copyCell(BoardStore source, int cell);
+
+    /**
+     * Copies every cell from a store of the same kind and size.
+     * @param source - store to be copied from.
+     */
+    public abstract void copyFrom(BoardStore source);
+
+    /**
+     * Creates an empty store of the same kind and size.
+     * @return a new store with every cell empty.
+     */
+    public abstract BoardStore createEmpty();
+
+    /**
+     * Returns the number of bytes holding the cells.
+     * @return footprint in bytes.
+     */
+    public abstract long footprint();
+}
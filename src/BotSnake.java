@@ -1,12 +1,10 @@
-import java.awt.*;
-import java.util.*;
-import java.util.List;
-
 /**
- * BotSnake - a Snake-like controllable thread class.
+ * BotSnake - a Snake-like controllable class.
  * Used to simulate a snake moving towards the fruit choosing the shortest path possible.
+ * Searches the board with a PathFinder, each decision is limited by a time budget.
+ * The budget makes the decisions depend on the speed of the machine, so reproducible games have to use UNBOUNDED.
  */
-public class BotSnake extends Thread implements Snake {
+public class BotSnake implements Snake {
     /**
      * Attribute which holds the current state of the frame.
      */
@@ -16,9 +14,18 @@ public class BotSnake extends Thread implements Snake {
      */
     private final int snakeIndex;
     /**
-     * Attribute which determines whether the Thread should be running.
+     * Attribute which holds the time budget of each search in nanoseconds.
      */
-    private volatile boolean running = true;
+    private final long budgetNanos;
+
+    /**
+     * Default time budget of each search, 2 milliseconds.
+     */
+    public static final long DEFAULT_BUDGET_NANOS = 2_000_000;
+    /**
+     * Budget of searches which always run to completion, making the decisions depend only on the state of the frame.
+     */
+    public static final long UNBOUNDED = Long.MAX_VALUE;
 
     /**
      * Class constructor.
@@ -26,106 +33,38 @@ public class BotSnake extends Thread implements Snake {
      * @param snakeIndex - index of BotSnake
      */
     public BotSnake(Frame frame, int snakeIndex) {
-        this.frame = frame;
-        this.snakeIndex = snakeIndex;
+        this(frame, snakeIndex, DEFAULT_BUDGET_NANOS);
     }
 
     /**
-     * Implementation of run() from Thread class, defines the function which is executed by the thread upon creation.
-     * <p>
-     * In a loop calls the control() function, then sleeps for 100 milliseconds, on failure to sleep sets running to false.
+     * Class constructor.
+     * @param frame - current frame
+     * @param snakeIndex - index of BotSnake
+     * @param budgetNanos - time budget of each search in nanoseconds, UNBOUNDED for none
      */
-    @Override
-    public void run() {
-        while (running) {
-
-            control();
-
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                running = false;
-            }
-        }
+    public BotSnake(Frame frame, int snakeIndex, long budgetNanos) {
+        this.frame = frame;
+        this.snakeIndex = snakeIndex;
+        this.budgetNanos = budgetNanos;
     }
 
     /**
      * The control of the BotSnake.
-     * Chooses a direction towards the fruit. Takes the shortest path possible. If the shortest path is obstructed, chooses a random valid direction.
+     * Follows a shortest path to the fruit. If there is none, or it was not found within the time budget,
+     * chooses the move after which the most of the board stays reachable.
      */
     @Override
     public void control()
     {
-        char dir = getFruitDirection(); // non-zero chance of getting stuck in an endless loop or killing itself
-        //System.out.println(dir);
-        if(!frame.isValidMove(snakeIndex, dir))
+        PathFinder finder = PathFinder.forThread(frame.getRows(), frame.getCols());
+        long deadline = budgetNanos == UNBOUNDED ? Long.MAX_VALUE : System.nanoTime() + budgetNanos;
+        char dir = finder.findPath(frame, snakeIndex, deadline);
+        if (dir == ' ')
         {
-            dir = getRandomValidDirection();
-            //System.out.println("invalid: "+ dir);
+            dir = finder.safestMove(frame, snakeIndex, deadline);
         }
         if (dir != ' ') {
             frame.setDirection(snakeIndex, dir);
         }
     }
-
-    /**
-     * Generates a randomized valid direction that BotSnake will move in.
-     * @return a char of valid move direction.
-     */
-    private char getRandomValidDirection() {
-        List<Character> shuffled = new ArrayList<>(List.of('N', 'S', 'E', 'W'));
-        char dirG = 'N';
-        int smallestDistance = Integer.MAX_VALUE;
-        for (char dir : shuffled) {
-            if (frame.isValidMove(snakeIndex, dir)) {
-                Point head = frame.snakes.get(snakeIndex).getFirst();
-                int headRow = head.x;
-                int headCol = head.y;
-                switch (dir) {
-                    case 'N': headRow--; break;
-                    case 'S': headRow++; break;
-                    case 'E': headCol++; break;
-                    case 'W': headCol--; break;
-                }
-                Point headCopy = new Point(headRow, headCol);
-                if(frame.getDistanceFromFruit(head) < smallestDistance) {
-                    smallestDistance = frame.getDistanceFromFruit(head);
-                    dirG = dir;
-                }
-            }
-        }
-        return dirG;
-    }
-
-    /**
-     * Generates a direction that BotSnake will move in.
-     * @return a char of fruit direction.
-     */
-    private char getFruitDirection()
-    {
-        char dir = ' ';
-        Point head = frame.snakes.get(snakeIndex).getFirst();
-        Point fruit = frame.getFruitPosition();
-
-        if(head.x < fruit.x)
-            dir = 'S';
-        else if(head.x > fruit.x)
-            dir = 'N';
-        if(!frame.isValidMove(snakeIndex, dir))
-        {
-            if (head.y < fruit.y)
-                dir = 'E';
-            else
-                dir = 'W';
-        }
-        return dir;
-    }
-
-    /**
-     * Unused
-     * Sets running to false.
-     */
-    public void stopRunning() {
-        running = false;
-    }
 }
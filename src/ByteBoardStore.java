@@ -0,0 +1,121 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Class storing every cell in a single byte, in a heap or a direct ByteBuffer.
+ * <p>
+ * Code 0 is an empty cell, 1 an obstacle, 2 the fruit, 3 + 2 * index the head and 4 + 2 * index the body
+ * of the snake with index "index". Collision queries compare the codes directly, without decoding them.
+ */
+public final class ByteBoardStore extends BoardStore {
+    /**
+     * Largest number of snakes that can be encoded.
+     */
+    public static final int MAX_SNAKES = 126;
+    /**
+     * Code of an obstacle.
+     */
+    private static final int OBSTACLE = 1;
+    /**
+     * Code of the fruit.
+     */
+    private static final int FRUIT = 2;
+    /**
+     * Code of the head of snake 0, the first snake code.
+     */
+    private static final int SNAKE_BASE = 3;
+    /**
+     * Character of each code.
+     */
+    private static final char[] DECODE = new char[256];
+
+    static {
+        DECODE[0] = Cell.EMPTY;
+        DECODE[OBSTACLE] = Cell.OBSTACLE;
+        DECODE[FRUIT] = Cell.FRUIT;
+        for (int i = 0; i < MAX_SNAKES; i++) {
+            DECODE[SNAKE_BASE + 2 * i] = Cell.head(i);
+            DECODE[SNAKE_BASE + 2 * i + 1] = Cell.body(i);
+        }
+    }
+
+    /**
+     * Codes of the cells in row-major order.
+     */
+    private final ByteBuffer cells;
+
+    /**
+     * Class constructor, every cell is empty.
+     * @param size - number of cells.
+     * @param offHeap - true to allocate the cells outside of the Java heap.
+     */
+    public ByteBoardStore(int size, boolean offHeap) {
+        super(size);
+        this.cells = offHeap ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+    }
+
+    /**
+     * Returns the code of a character.
+     * @param c - character of a cell.
+     * @return code of the cell.
+     */
+    private static byte encode(char c) {
+        switch (c) {
+            case Cell.EMPTY: return 0;
+            case Cell.OBSTACLE: return OBSTACLE;
+            case Cell.FRUIT: return FRUIT;
+            default:
+                int owner = Cell.owner(c);
+                if (owner < 0 || owner >= MAX_SNAKES) {
+                    throw new IllegalArgumentException("Cell cannot be stored in a byte: " + (int) c);
+                }
+                return (byte) (SNAKE_BASE + 2 * owner + (Cell.isHead(c) ? 0 : 1));
+        }
+    }
+
+    @Override
+    public char get(int cell) {
+        return DECODE[cells.get(cell) & 0xFF];
+    }
+
+    @Override
+    public void set(int cell, char c) {
+        cells.put(cell, encode(c));
+    }
+
+    @Override
+    public boolean isFree(int cell) {
+        int code = cells.get(cell);
+        return code == 0 || code == FRUIT;
+    }
+
+    @Override
+    public boolean isObstacle(int cell) {
+        return cells.get(cell) == OBSTACLE;
+    }
+
+    @Override
+    public int owner(int cell) {
+        int code = cells.get(cell) & 0xFF;
+        return code >= SNAKE_BASE ? (code - SNAKE_BASE) >> 1 : -1;
+    }
+
+    @Override
+    public void copyCell(BoardStore source, int cell) {
+        cells.put(cell, ((ByteBoardStore) source).cells.get(cell));
+    }
+
+    @Override
+    public void copyFrom(BoardStore source) {
+        cells.put(0, ((ByteBoardStore) source).cells, 0, size);
+    }
+
+    @Override
+    public BoardStore createEmpty() {
+        return new ByteBoardStore(size, cells.isDirect());
+    }
+
+    @Override
+    public long footprint() {
+        return size;
+    }
+}
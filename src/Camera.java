@@ -0,0 +1,189 @@
+/**
+ * Class representing the part of the board shown on the screen, following the head of a chosen snake.
+ * <p>
+ * The view moves only when the followed head leaves the middle half of it, so that the screen does not scroll
+ * on every tick. It never leaves the board, and stays where it is once the followed snake has died.
+ */
+public class Camera {
+    /**
+     * Index of the followed snake.
+     */
+    private int followed;
+    /**
+     * First visible row.
+     */
+    private int row;
+    /**
+     * First visible column.
+     */
+    private int col;
+    /**
+     * Number of visible rows.
+     */
+    private int viewRows;
+    /**
+     * Number of visible columns.
+     */
+    private int viewCols;
+    /**
+     * True if the view has to be centered on the followed head at the next update.
+     */
+    private boolean recenter = true;
+
+    /**
+     * Class constructor.
+     * @param followed - index of the followed snake.
+     */
+    public Camera(int followed) {
+        this.followed = followed;
+    }
+
+    /**
+     * Chooses the snake to be followed, the view is centered on its head at the next update.
+     * @param index - index of the snake.
+     */
+    public void follow(int index) {
+        followed = index;
+        recenter = true;
+    }
+
+    /**
+     * Returns the index of the followed snake.
+     * @return index of the snake.
+     */
+    public int getFollowed() {
+        return followed;
+    }
+
+    /**
+     * Sets the number of visible rows and columns, the view is centered on the followed head at the next update.
+     * @param viewRows - number of visible rows.
+     * @param viewCols - number of visible columns.
+     */
+    public void resize(int viewRows, int viewCols) {
+        this.viewRows = viewRows;
+        this.viewCols = viewCols;
+        recenter = true;
+    }
+
+    /**
+     * Moves the view after the followed head.
+     * @param pixels - current frame state.
+     * @return true if the view has moved, false otherwise.
+     */
+    public boolean update(FrameSnapshot pixels) {
+        int head = followed < pixels.getSnakeCount() ? pixels.getHead(followed) : -1;
+        int newRow = row;
+        int newCol = col;
+        if (head >= 0) {
+            int headRow = head / pixels.getCols();
+            int headCol = head % pixels.getCols();
+            if (recenter) {
+                newRow = headRow - viewRows / 2;
+                newCol = headCol - viewCols / 2;
+            } else {
+                newRow = follow(row, headRow, viewRows);
+                newCol = follow(col, headCol, viewCols);
+            }
+            recenter = false;
+        }
+        newRow = Math.max(0, Math.min(newRow, pixels.getRows() - viewRows));
+        newCol = Math.max(0, Math.min(newCol, pixels.getCols() - viewCols));
+        boolean moved = newRow != row || newCol != col;
+        row = newRow;
+        col = newCol;
+        return moved;
+    }
+
+    /**
+     * Moves a single coordinate of the view so that the head lies in its middle half.
+     * @param first - first visible coordinate.
+     * @param head - coordinate of the head.
+     * @param size - number of visible coordinates.
+     * @return new first visible coordinate.
+     */
+    private static int follow(int first, int head, int size) {
+        int margin = size / 4;
+        if (head < first + margin) {
+            return head - margin;
+        }
+        if (head > first + size - 1 - margin) {
+            return head - (size - 1 - margin);
+        }
+        return first;
+    }
+
+    /**
+     * Returns the first visible row.
+     * @return row of the top left corner of the view.
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * Returns the first visible column.
+     * @return column of the top left corner of the view.
+     */
+    public int getCol() {
+        return col;
+    }
+
+    /**
+     * Returns the number of visible rows.
+     * @return number of rows.
+     */
+    public int getViewRows() {
+        return viewRows;
+    }
+
+    /**
+     * Returns the number of visible columns.
+     * @return number of columns.
+     */
+    public int getViewCols() {
+        return viewCols;
+    }
+
+    /**
+     * Returns the first row of BoardChunks chunks touched by the view.
+     * @return chunk row.
+     */
+    public int getFirstChunkRow() {
+        return row / BoardChunks.CHUNK;
+    }
+
+    /**
+     * Returns the last row of BoardChunks chunks touched by the view.
+     * @return chunk row.
+     */
+    public int getLastChunkRow() {
+        return (row + viewRows - 1) / BoardChunks.CHUNK;
+    }
+
+    /**
+     * Returns the first column of BoardChunks chunks touched by the view.
+     * @return chunk column.
+     */
+    public int getFirstChunkCol() {
+        return col / BoardChunks.CHUNK;
+    }
+
+    /**
+     * Returns the last column of BoardChunks chunks touched by the view.
+     * @return chunk column.
+     */
+    public int getLastChunkCol() {
+        return (col + viewCols - 1) / BoardChunks.CHUNK;
+    }
+
+    /**
+     * Checks whether a cell is visible.
+     * @param cellRow - row of the cell.
+     * @param cellCol - column of the cell.
+     * @return true if the cell lies in the view, false otherwise.
+     */
+    public boolean isVisible(int cellRow, int cellCol) {
+        return cellRow >= row && cellRow < row + viewRows && cellCol >= col && cellCol < col + viewCols;
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Class defining the characters stored in each board pixel.
+ * <p>
+ * The first three snakes keep their letters ('A'/'a', 'B'/'b', 'S'/'s' for head/body), every further snake
+ * is encoded as SNAKE_BASE + 2 * index for its head and one more for its body, so the owner of a pixel is known without any lookup.
+ */
+public final class Cell {
+    /**
+     * Empty pixel.
+     */
+    public static final char EMPTY = ' ';
+    /**
+     * Obstacle pixel.
+     */
+    public static final char OBSTACLE = 'p';
+    /**
+     * Fruit pixel.
+     */
+    public static final char FRUIT = 'o';
+    /**
+     * First character used by snakes with index 3 and above.
+     */
+    private static final char SNAKE_BASE = 0x100;
+    /**
+     * Largest number of snakes that can be encoded.
+     */
+    public static final int MAX_SNAKES = (Character.MAX_VALUE - SNAKE_BASE + 1) / 2;
+    /**
+     * Head characters of the first three snakes.
+     */
+    private static final char[] HEADS = {'A', 'B', 'S'};
+    /**
+     * Body characters of the first three snakes.
+     */
+    private static final char[] BODIES = {'a', 'b', 's'};
+
+    private Cell() {
+    }
+
+    /**
+     * Returns the character representing the head of the snake with index "index".
+     * @param index - index of the snake.
+     * @return head character.
+     */
+    public static char head(int index) {
+        return index < HEADS.length ? HEADS[index] : (char) (SNAKE_BASE + 2 * index);
+    }
+
+    /**
+     * Returns the character representing the body of the snake with index "index".
+     * @param index - index of the snake.
+     * @return body character.
+     */
+    public static char body(int index) {
+        return index < BODIES.length ? BODIES[index] : (char) (SNAKE_BASE + 2 * index + 1);
+    }
+
+    /**
+     * Returns the index of the snake a pixel belongs to.
+     * @param c - character of the pixel.
+     * @return index of the snake, -1 if the pixel is not a snake.
+     */
+    public static int owner(char c) {
+        if (c >= SNAKE_BASE) {
+            return (c - SNAKE_BASE) / 2;
+        }
+        for (int i = 0; i < HEADS.length; i++) {
+            if (c == HEADS[i] || c == BODIES[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether a pixel is the head of a snake.
+     * @param c - character of the pixel.
+     * @return true if is, false otherwise.
+     */
+    public static boolean isHead(char c) {
+        return c >= SNAKE_BASE ? (c - SNAKE_BASE) % 2 == 0 : c == 'A' || c == 'B' || c == 'S';
+    }
+}
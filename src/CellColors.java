@@ -0,0 +1,80 @@
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * Class choosing the color of each cell state, shared by the renderers.
+ * Snakes 0 to 2 keep their classic colors, further snakes get hues spread evenly around the color wheel.
+ * Not thread-safe, every renderer owns its instance.
+ */
+public class CellColors {
+    /**
+     * Color of the grid lines.
+     */
+    public static final Color GRID = Color.GRAY;
+    /**
+     * Color of an empty cell.
+     */
+    public static final Color EMPTY = Color.WHITE;
+
+    /**
+     * Colors of the snakes with index 3 and above, created on first use.
+     */
+    private Color[] snakeColors = new Color[16];
+    /**
+     * Packed RGB value of each cell state, 0 until first used.
+     */
+    private final int[] palette = new int[Character.MAX_VALUE + 1];
+
+    /**
+     * Returns the color of a cell state.
+     * @param c - state of the cell.
+     * @return color of the cell.
+     */
+    public Color get(char c) {
+        switch (c) {
+            case 'A': case 'a': case 'x':
+                return Color.RED;
+            case 'B': case 'b': case 'y':
+                return Color.BLUE;
+            case 'S': case 's': case 'z':
+                return Color.GREEN;
+            case 'o':
+                return Color.ORANGE;
+            case 'p':
+                return Color.DARK_GRAY;
+            default:
+                int owner = Cell.owner(c);
+                return owner >= 0 ? snakeColor(owner) : EMPTY;
+        }
+    }
+
+    /**
+     * Returns the color of a cell state as a packed ARGB value, looked up in a palette filled on first use.
+     * @param c - state of the cell.
+     * @return opaque ARGB value of the cell.
+     */
+    public int rgb(char c) {
+        int value = palette[c];
+        if (value == 0) {
+            // opaque colors are never 0
+            value = get(c).getRGB();
+            palette[c] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Returns the color of a snake with index 3 or above, spreading the hues evenly.
+     * @param index - index of the snake.
+     * @return color of the snake.
+     */
+    private Color snakeColor(int index) {
+        if (index >= snakeColors.length) {
+            snakeColors = Arrays.copyOf(snakeColors, Math.max(index + 1, snakeColors.length * 2));
+        }
+        if (snakeColors[index] == null) {
+            snakeColors[index] = Color.getHSBColor((index * 0.618034f) % 1f, 0.7f, 0.85f);
+        }
+        return snakeColors[index];
+    }
+}
@@ -0,0 +1,96 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Class representing a set of packed board cells with O(1) insertion, removal and random selection.
+ * <p>
+ * Cells are kept densely in an array, removal swaps the last cell into the freed slot.
+ * A second array maps every cell to its slot, so no lookup scans the set and no operation allocates.
+ */
+public class CellSet {
+    /**
+     * Dense array of the cells in the set, only the first size entries are valid.
+     */
+    private final int[] cells;
+    /**
+     * Slot of each cell in the dense array, -1 if the cell is not in the set.
+     */
+    private final int[] slots;
+    /**
+     * Number of cells in the set.
+     */
+    private int size;
+
+    /**
+     * Class constructor, creates an empty set.
+     * @param capacity - number of cells on the board.
+     */
+    public CellSet(int capacity) {
+        this.cells = new int[capacity];
+        this.slots = new int[capacity];
+        Arrays.fill(slots, -1);
+    }
+
+    /**
+     * Adds the cell to the set.
+     * @param cell - packed cell to be added.
+     */
+    public void add(int cell) {
+        if (slots[cell] >= 0) {
+            return;
+        }
+        cells[size] = cell;
+        slots[cell] = size;
+        size++;
+    }
+
+    /**
+     * Removes the cell from the set.
+     * @param cell - packed cell to be removed.
+     */
+    public void remove(int cell) {
+        int slot = slots[cell];
+        if (slot < 0) {
+            return;
+        }
+        size--;
+        int last = cells[size];
+        cells[slot] = last;
+        slots[last] = slot;
+        slots[cell] = -1;
+    }
+
+    /**
+     * Checks whether the cell is in the set.
+     * @param cell - packed cell to be checked.
+     * @return true if is, false otherwise.
+     */
+    public boolean contains(int cell) {
+        return slots[cell] >= 0;
+    }
+
+    /**
+     * Returns the number of cells in the set.
+     * @return size of the set.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the set is empty.
+     * @return true if is, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Picks a uniformly random cell of the set.
+     * @param random - source of randomness.
+     * @return packed cell, -1 if the set is empty.
+     */
+    public int pickRandom(Random random) {
+        return size == 0 ? -1 : cells[random.nextInt(size)];
+    }
+}
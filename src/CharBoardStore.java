@@ -0,0 +1,67 @@
+import java.util.Arrays;
+
+/**
+ * Class storing every cell as its Cell character, two bytes per cell, for games with any number of snakes.
+ */
+public final class CharBoardStore extends BoardStore {
+    /**
+     * Characters of the cells in row-major order.
+     */
+    private final char[] cells;
+
+    /**
+     * Class constructor, every cell is empty.
+     * @param size - number of cells.
+     */
+    public CharBoardStore(int size) {
+        super(size);
+        this.cells = new char[size];
+        Arrays.fill(cells, Cell.EMPTY);
+    }
+
+    @Override
+    public char get(int cell) {
+        return cells[cell];
+    }
+
+    @Override
+    public void set(int cell, char c) {
+        cells[cell] = c;
+    }
+
+    @Override
+    public boolean isFree(int cell) {
+        char c = cells[cell];
+        return c == Cell.EMPTY || c == Cell.FRUIT;
+    }
+
+    @Override
+    public boolean isObstacle(int cell) {
+        return cells[cell] == Cell.OBSTACLE;
+    }
+
+    @Override
+    public int owner(int cell) {
+        return Cell.owner(cells[cell]);
+    }
+
+    @Override
+    public void copyCell(BoardStore source, int cell) {
+        cells[cell] = ((CharBoardStore) source).cells[cell];
+    }
+
+    @Override
+    public void copyFrom(BoardStore source) {
+        System.arraycopy(((CharBoardStore) source).cells, 0, cells, 0, size);
+    }
+
+    @Override
+    public BoardStore createEmpty() {
+        return new CharBoardStore(size);
+    }
+
+    @Override
+    public long footprint() {
+        return 2L * size;
+    }
+}
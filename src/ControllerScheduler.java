@@ -0,0 +1,109 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class calling every Snake-like controllable exactly once per tick, right before the frame is advanced.
+ * <p>
+ * Replaces one thread per snake: a handful of controllers are run directly on the tick thread,
+ * larger numbers are split into chunks executed by a small shared pool, and the tick waits until all of them are done.
+ * Controllers therefore always see a stable frame and their cadence is exactly the tick cadence.
+ */
+public class ControllerScheduler {
+    /**
+     * Number of controllers handled by a single pool task.
+     */
+    private static final int CHUNK = 32;
+
+    /**
+     * Controllers called each tick.
+     */
+    private final List<Snake> controllers;
+    /**
+     * Pool running the chunks, null if every controller runs on the tick thread.
+     */
+    private final ExecutorService pool;
+    /**
+     * One task per chunk of controllers, created once and reused every tick.
+     */
+    private final List<Callable<Void>> tasks;
+
+    /**
+     * Class constructor.
+     * @param controllers - controllers to be called each tick.
+     * @param threads - size of the pool, 1 runs every controller on the tick thread.
+     */
+    public ControllerScheduler(List<? extends Snake> controllers, int threads) {
+        this.controllers = new ArrayList<>(controllers);
+        this.tasks = new ArrayList<>();
+        if (threads <= 1 || this.controllers.size() <= CHUNK) {
+            this.pool = null;
+            return;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "controller-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int from = 0; from < this.controllers.size(); from += CHUNK) {
+            int start = from;
+            int end = Math.min(from + CHUNK, this.controllers.size());
+            tasks.add(() -> {
+                runRange(start, end);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Class constructor, sizes the pool to the number of available processors.
+     * @param controllers - controllers to be called each tick.
+     */
+    public ControllerScheduler(List<? extends Snake> controllers) {
+        this(controllers, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Calls control() of every controller once and waits until all calls have finished.
+     */
+    public void runTick() {
+        if (pool == null) {
+            runRange(0, controllers.size());
+            return;
+        }
+        try {
+            pool.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Calls the controllers with indexes from "start" (inclusive) to "end" (exclusive).
+     * A failing controller does not prevent the others from running.
+     * @param start - first controller.
+     * @param end - end of the range.
+     */
+    private void runRange(int start, int end) {
+        for (int i = start; i < end; i++) {
+            try {
+                controllers.get(i).control();
+            } catch (RuntimeException e) {
+                System.out.println("Error in controller " + i + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Releases the pool threads.
+     */
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+/**
+ * Reason why a snake has lost the game.
+ */
+public enum DeathCause {
+    /**
+     * The snake is still alive.
+     */
+    NONE,
+    /**
+     * The snake left the board.
+     */
+    WALL,
+    /**
+     * The snake hit an obstacle.
+     */
+    OBSTACLE,
+    /**
+     * The snake hit its own body.
+     */
+    SELF,
+    /**
+     * The snake hit another snake.
+     */
+    SNAKE
+}
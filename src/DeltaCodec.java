@@ -0,0 +1,169 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Class encoding tick deltas and keyframes into the compact binary messages defined by Protocol.
+ * <p>
+ * Numbers are varints with 7 bits per byte, low bits first. A DELTA payload holds the tick number, the number of
+ * changed cells, then for each cell in ascending order its distance from the previous changed cell and its new state,
+ * then the number of events and for each event (snake + 1) * 3 + ordinal of the DeltaEvent followed by its argument.
+ * A normal tick costs a few bytes per moving snake, whatever the size of the board.
+ * <p>
+ * A KEYFRAME payload holds the tick number, the numbers of rows, columns and snakes, the whole board as runs of equal
+ * cells (run length, state) in row-major order, and for each snake its score and its head cell + 1, 0 if it has lost.
+ * Mostly empty boards therefore shrink to a few bytes per occupied cell. A reader can start from any keyframe and
+ * apply the deltas following it, see DeltaDecoder.
+ * <p>
+ * Deltas are encoded by the delta listener, inside the tick, into a buffer of the caller in O(changed cells).
+ * Keyframes read the whole board, so they are encoded from a published FrameSnapshot once the tick has finished.
+ */
+final class DeltaCodec {
+    /**
+     * Default number of ticks between two keyframes.
+     */
+    static final int KEYFRAME_INTERVAL = 100;
+    /**
+     * Largest number of bytes of a varint holding an int.
+     */
+    private static final int MAX_VARINT = 5;
+
+    /**
+     * Class constructor, not used.
+     */
+    private DeltaCodec() {
+    }
+
+    /**
+     * Returns the largest number of bytes of the DELTA message of a tick.
+     * @param delta - delta of the tick.
+     * @return upper bound of the size of the message.
+     */
+    static int maxDeltaSize(TickDelta delta) {
+        return Protocol.HEADER + 2 * MAX_VARINT + 2 * MAX_VARINT * (delta.getChangeCount() + delta.getEventCount()) + 10;
+    }
+
+    /**
+     * Appends the changes and events of a tick as a DELTA message.
+     * @param delta - delta of the tick.
+     * @param out - destination buffer, with at least maxDeltaSize() bytes remaining.
+     */
+    static void encodeDelta(TickDelta delta, ByteBuffer out) {
+        int changes = delta.getChangeCount();
+        int events = delta.getEventCount();
+        int start = out.position();
+        out.position(start + 4);
+        out.put(Protocol.DELTA);
+        putVarint(out, delta.getEpoch());
+        putVarint(out, changes);
+        int previous = -1;
+        for (int i = 0; i < changes; i++) {
+            int cell = delta.getChangedCell(i);
+            putVarint(out, cell - previous - 1);
+            putVarint(out, delta.getChangedState(i));
+            previous = cell;
+        }
+        putVarint(out, events);
+        for (int i = 0; i < events; i++) {
+            putVarint(out, (delta.getEventSnake(i) + 1L) * 3 + delta.getEvent(i).ordinal());
+            putVarint(out, delta.getEventArg(i));
+        }
+        out.putInt(start, out.position() - start - 4);
+    }
+
+    /**
+     * Encodes the whole state of a snapshot as a KEYFRAME message.
+     * @param snapshot - published state after a tick.
+     * @return message ready to be written.
+     */
+    static ByteBuffer encodeKeyframe(FrameSnapshot snapshot) {
+        BoardStore cells = snapshot.cells;
+        int size = snapshot.getRows() * snapshot.getCols();
+        int runs = 0;
+        for (int cell = 0; cell < size; cell++) {
+            if (cell == 0 || cells.get(cell) != cells.get(cell - 1)) {
+                runs++;
+            }
+        }
+        int snakes = snapshot.getSnakeCount();
+        ByteBuffer message = start(Protocol.KEYFRAME, MAX_VARINT * (4 + 2 * runs + 2 * snakes) + 5);
+        putVarint(message, snapshot.getEpoch());
+        putVarint(message, snapshot.getRows());
+        putVarint(message, snapshot.getCols());
+        putVarint(message, snakes);
+        int start = 0;
+        for (int cell = 1; cell <= size; cell++) {
+            if (cell == size || cells.get(cell) != cells.get(start)) {
+                putVarint(message, cell - start);
+                putVarint(message, cells.get(start));
+                start = cell;
+            }
+        }
+        for (int i = 0; i < snakes; i++) {
+            putVarint(message, snapshot.getScore(i));
+            putVarint(message, snapshot.getHead(i) + 1L);
+        }
+        return finish(message);
+    }
+
+    /**
+     * Checks whether a keyframe is due after a tick: after the first one and every KEYFRAME_INTERVAL ticks.
+     * @param epoch - number of the tick.
+     * @param interval - number of ticks between two keyframes.
+     * @return true if a keyframe has to follow the tick.
+     */
+    static boolean isKeyframe(long epoch, int interval) {
+        return epoch == 1 || epoch % interval == 0;
+    }
+
+    /**
+     * Allocates a message large enough for its payload and writes the type, the length is written by finish().
+     * @param type - type of the message.
+     * @param payload - largest number of bytes of the payload.
+     * @return buffer positioned at the start of the payload.
+     */
+    private static ByteBuffer start(byte type, int payload) {
+        ByteBuffer message = ByteBuffer.allocate(Protocol.HEADER + payload);
+        message.position(4);
+        message.put(type);
+        return message;
+    }
+
+    /**
+     * Writes the length of a message and trims it to the bytes actually used.
+     * @param message - message filled up to its position.
+     * @return message ready to be written.
+     */
+    private static ByteBuffer finish(ByteBuffer message) {
+        message.putInt(0, message.position() - 4);
+        message.flip();
+        return message.slice();
+    }
+
+    /**
+     * Appends a non-negative varint.
+     * @param out - destination buffer.
+     * @param value - value to be appended.
+     */
+    static void putVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    /**
+     * Reads a varint.
+     * @param in - buffer positioned at the varint.
+     * @return the decoded value.
+     */
+    static long getVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
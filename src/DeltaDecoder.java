@@ -0,0 +1,288 @@
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Class rebuilding the state of a game from the messages encoded by DeltaCodec.
+ * <p>
+ * A keyframe replaces the whole state, a delta is applied only if it follows the tick the decoder holds, otherwise
+ * the reader has to wait for the next keyframe. After each message the changed cells and events are available,
+ * so a renderer can repaint only those cells, exactly as it does with FrameSnapshot.
+ * <p>
+ * Usage: DeltaDecoder FILE, prints the statistics of a recording made by DeltaWriter.
+ */
+public class DeltaDecoder {
+    /**
+     * All values of DeltaEvent, indexed by ordinal.
+     */
+    private static final DeltaEvent[] EVENTS = DeltaEvent.values();
+
+    /**
+     * Number of rows on the board.
+     */
+    private int rows;
+    /**
+     * Number of columns on the board.
+     */
+    private int cols;
+    /**
+     * State of every cell in row-major order, null until the first keyframe.
+     */
+    private char[] board;
+    /**
+     * Score of each snake.
+     */
+    private int[] scores;
+    /**
+     * Head cell of each snake, -1 if it has lost.
+     */
+    private int[] heads;
+    /**
+     * Number of the tick the state reflects, -1 until the first keyframe.
+     */
+    private long epoch = -1;
+    /**
+     * Cells changed by the last message, all cells after a keyframe are not listed.
+     */
+    private final IntList changed = new IntList(16);
+    /**
+     * Events of the last message, three entries each: ordinal of the DeltaEvent, snake, argument.
+     */
+    private final IntList events = new IntList(16);
+
+    /**
+     * Applies a single message.
+     * @param type - Protocol.KEYFRAME or Protocol.DELTA.
+     * @param payload - buffer positioned at the payload, left after its end.
+     * @return true if the message was applied, false if it is a delta that does not follow the current state.
+     */
+    public boolean apply(byte type, ByteBuffer payload) {
+        changed.clear();
+        events.clear();
+        if (type == Protocol.KEYFRAME) {
+            readKeyframe(payload);
+            return true;
+        }
+        if (type != Protocol.DELTA) {
+            throw new IllegalArgumentException("Unknown message type: " + type);
+        }
+        long tick = DeltaCodec.getVarint(payload);
+        if (board == null || tick != epoch + 1) {
+            return false;
+        }
+        epoch = tick;
+        int changes = (int) DeltaCodec.getVarint(payload);
+        int cell = -1;
+        for (int i = 0; i < changes; i++) {
+            cell += (int) DeltaCodec.getVarint(payload) + 1;
+            char c = (char) DeltaCodec.getVarint(payload);
+            board[cell] = c;
+            changed.add(cell);
+            if (Cell.isHead(c)) {
+                heads[Cell.owner(c)] = cell;
+            }
+        }
+        int count = (int) DeltaCodec.getVarint(payload);
+        for (int i = 0; i < count; i++) {
+            long code = DeltaCodec.getVarint(payload);
+            int arg = (int) DeltaCodec.getVarint(payload);
+            DeltaEvent event = EVENTS[(int) (code % 3)];
+            int snake = (int) (code / 3) - 1;
+            events.add(event.ordinal());
+            events.add(snake);
+            events.add(arg);
+            if (event == DeltaEvent.ATE) {
+                scores[snake]++;
+            } else if (event == DeltaEvent.DIED) {
+                heads[snake] = -1;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the whole state with a keyframe.
+     * @param payload - buffer positioned at the payload.
+     */
+    private void readKeyframe(ByteBuffer payload) {
+        epoch = DeltaCodec.getVarint(payload);
+        rows = (int) DeltaCodec.getVarint(payload);
+        cols = (int) DeltaCodec.getVarint(payload);
+        int snakes = (int) DeltaCodec.getVarint(payload);
+        if (board == null || board.length != rows * cols) {
+            board = new char[rows * cols];
+        }
+        if (scores == null || scores.length != snakes) {
+            scores = new int[snakes];
+            heads = new int[snakes];
+        }
+        int cell = 0;
+        while (cell < board.length) {
+            int run = (int) DeltaCodec.getVarint(payload);
+            char c = (char) DeltaCodec.getVarint(payload);
+            Arrays.fill(board, cell, cell + run, c);
+            cell += run;
+        }
+        for (int i = 0; i < snakes; i++) {
+            scores[i] = (int) DeltaCodec.getVarint(payload);
+            heads[i] = (int) DeltaCodec.getVarint(payload) - 1;
+        }
+    }
+
+    /**
+     * Returns the state of a cell.
+     * @param row - row of the cell.
+     * @param col - column of the cell.
+     * @return character of the cell.
+     */
+    public char get(int row, int col) {
+        return board[row * cols + col];
+    }
+
+    /**
+     * Checks whether a keyframe has been applied.
+     * @return true if the state is known, false otherwise.
+     */
+    public boolean isSynchronized() {
+        return board != null;
+    }
+
+    /**
+     * Returns the number of the tick the state reflects.
+     * @return tick number, -1 before the first keyframe.
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Returns the number of rows on the board.
+     * @return number of rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns on the board.
+     * @return number of columns.
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Returns the score of a snake.
+     * @param index - index of the snake.
+     * @return score of the snake.
+     */
+    public int getScore(int index) {
+        return scores[index];
+    }
+
+    /**
+     * Returns the head of a snake.
+     * @param index - index of the snake.
+     * @return packed cell of the head, -1 if the snake has lost.
+     */
+    public int getHead(int index) {
+        return heads[index];
+    }
+
+    /**
+     * Returns the number of cells changed by the last delta.
+     * @return number of changed cells, 0 after a keyframe.
+     */
+    public int getChangedCount() {
+        return changed.size();
+    }
+
+    /**
+     * Returns the changed cell at position "i".
+     * @param i - position in the list of changed cells.
+     * @return packed cell (row * cols + col).
+     */
+    public int getChangedCell(int i) {
+        return changed.get(i);
+    }
+
+    /**
+     * Returns the number of events of the last delta.
+     * @return number of events.
+     */
+    public int getEventCount() {
+        return events.size() / 3;
+    }
+
+    /**
+     * Returns the kind of the event at position "i".
+     * @param i - position in the list of events.
+     * @return kind of the event.
+     */
+    public DeltaEvent getEvent(int i) {
+        return EVENTS[events.get(3 * i)];
+    }
+
+    /**
+     * Returns the snake of the event at position "i".
+     * @param i - position in the list of events.
+     * @return index of the snake, -1 for none.
+     */
+    public int getEventSnake(int i) {
+        return events.get(3 * i + 1);
+    }
+
+    /**
+     * Returns a hash of the whole board, equal for equal boards.
+     * @return hash of the board, 0 before the first keyframe.
+     */
+    public int boardHash() {
+        return board == null ? 0 : Arrays.hashCode(board);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.out.println("Usage: DeltaDecoder FILE");
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(Path.of(args[0]), StandardOpenOption.READ)) {
+            ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != DeltaWriter.MAGIC) {
+                System.out.println("Error reading deltas: not a delta recording");
+                return;
+            }
+            DeltaDecoder decoder = new DeltaDecoder();
+            long deltas = 0;
+            long deltaBytes = 0;
+            long keyframes = 0;
+            long keyframeBytes = 0;
+            long changes = 0;
+            while (in.remaining() >= Protocol.HEADER) {
+                int length = in.getInt();
+                int next = in.position() + length;
+                byte type = in.get();
+                if (!decoder.apply(type, in)) {
+                    System.out.println("Error reading deltas: tick after " + decoder.getEpoch() + " is missing");
+                    return;
+                }
+                if (type == Protocol.KEYFRAME) {
+                    keyframes++;
+                    keyframeBytes += 4 + length;
+                } else {
+                    deltas++;
+                    deltaBytes += 4 + length;
+                    changes += decoder.getChangedCount();
+                }
+                in.position(next);
+            }
+            System.out.printf("%d ticks, %d x %d board, %.1f bytes and %.1f cells per delta, %d keyframes of %.0f bytes%n",
+                    decoder.getEpoch(), decoder.getRows(), decoder.getCols(), deltaBytes / (double) Math.max(1, deltas),
+                    changes / (double) Math.max(1, deltas), keyframes, keyframeBytes / (double) Math.max(1, keyframes));
+            for (int i = 0; i < decoder.scores.length; i++) {
+                System.out.println("snake " + i + ": score " + decoder.getScore(i));
+            }
+        }
+    }
+}
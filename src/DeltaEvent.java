@@ -0,0 +1,17 @@
+/**
+ * Kind of an event behind the cells changed by a tick.
+ */
+public enum DeltaEvent {
+    /**
+     * A snake ate the fruit, the argument is the cell of the fruit.
+     */
+    ATE,
+    /**
+     * A snake has lost, the argument is the ordinal of its DeathCause.
+     */
+    DIED,
+    /**
+     * A new fruit was placed, the argument is its cell.
+     */
+    FRUIT
+}
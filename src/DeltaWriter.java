@@ -0,0 +1,149 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Class recording the state of a game as a stream of tick deltas with periodic keyframes.
+ * <p>
+ * Unlike a replay, which holds only the directions and has to be re-simulated, a delta recording can be played back
+ * or seeked from any keyframe without the engine. The file starts with the MAGIC number, followed by the messages
+ * of DeltaCodec exactly as GameServer sends them: a keyframe after the first tick and every interval ticks,
+ * a delta after every other tick. Registered with Frame.setDeltaListener(), it encodes the deltas straight into its
+ * buffer during the tick. The keyframes are written by afterTick(), which has to be called after every tick,
+ * so the board is read from the published snapshot without holding the frame.
+ */
+public class DeltaWriter implements Consumer<TickDelta>, AutoCloseable {
+    /**
+     * First four bytes of a delta recording, "SNKD".
+     */
+    static final int MAGIC = 0x534E4B44;
+    /**
+     * Size of the write buffer.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Channel of the recording.
+     */
+    private final FileChannel channel;
+    /**
+     * Messages not written to the channel yet.
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    /**
+     * Number of ticks between two keyframes.
+     */
+    private final int interval;
+    /**
+     * True if writing has failed, nothing more is written.
+     */
+    private boolean failed;
+
+    /**
+     * Class constructor, creates the file.
+     * @param file - path of the recording, replaced if it exists.
+     * @param interval - number of ticks between two keyframes.
+     * @throws IOException if the file cannot be created.
+     */
+    public DeltaWriter(Path file, int interval) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.interval = interval;
+        buffer.putInt(MAGIC);
+    }
+
+    /**
+     * Records the delta of a tick, called by the frame. The first tick is only recorded by its keyframe.
+     * @param delta - delta of the tick.
+     */
+    @Override
+    public void accept(TickDelta delta) {
+        if (failed || delta.getEpoch() == 1) {
+            return;
+        }
+        int size = DeltaCodec.maxDeltaSize(delta);
+        if (size > BUFFER_SIZE) {
+            ByteBuffer message = ByteBuffer.allocate(size);
+            DeltaCodec.encodeDelta(delta, message);
+            write(message.flip());
+            return;
+        }
+        try {
+            if (size > buffer.remaining()) {
+                flush();
+            }
+            DeltaCodec.encodeDelta(delta, buffer);
+        } catch (IOException e) {
+            failed = true;
+            System.out.println("Error writing deltas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Records a keyframe if one is due after the last tick, has to be called after every tick
+     * by the thread advancing the frame, which becomes the reader of its snapshots.
+     * @param frame - frame which has just finished a tick.
+     */
+    public void afterTick(Frame frame) {
+        FrameSnapshot snapshot = frame.getFrame();
+        if (DeltaCodec.isKeyframe(snapshot.getEpoch(), interval)) {
+            write(DeltaCodec.encodeKeyframe(snapshot));
+        }
+    }
+
+    /**
+     * Appends a message to the buffer, writing the buffer to the channel when the message does not fit.
+     * Messages larger than the buffer are written directly. On failure the error is printed and recording stops.
+     * @param message - message ready to be written.
+     */
+    private void write(ByteBuffer message) {
+        if (failed) {
+            return;
+        }
+        try {
+            if (message.remaining() > buffer.remaining()) {
+                flush();
+            }
+            if (message.remaining() > buffer.remaining()) {
+                while (message.hasRemaining()) {
+                    channel.write(message);
+                }
+            } else {
+                buffer.put(message);
+            }
+        } catch (IOException e) {
+            failed = true;
+            System.out.println("Error writing deltas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the buffered messages to the channel.
+     * @throws IOException if writing fails.
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes the buffered messages and closes the file.
+     * @throws IOException if the file cannot be written or closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!failed) {
+                flush();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -4,7 +4,6 @@ import java.awt.event.ActionEvent;
 
 /**
  * Class defining the StartPanel which is displayed after game ends, can relaunch the game.
- * Writes to file if new best score is achieved.
  */
 public class EndPanel extends JPanel {
     /**
@@ -12,7 +11,7 @@ public class EndPanel extends JPanel {
      * Displays the last best score and current game score.
      * @param mainFrame - the main frame which handles the game state logic.
      * @param currentScore - score achieved during the game.
-     * @param bestScore - best score achieved saved in "scores.txt" file.
+     * @param bestScore - best score saved in the score file before this game.
      */
     public EndPanel(MainGame mainFrame, int currentScore, int bestScore) {
         setLayout(new BorderLayout());
@@ -56,9 +55,5 @@ public class EndPanel extends JPanel {
         JPanel buttonPanel = new JPanel();
         buttonPanel.add(startButton);
         add(buttonPanel, BorderLayout.SOUTH);
-        if(currentScore >= bestScore)
-        {
-            new ScoreFile().writeScoreFile(currentScore);
-        }
     }
 }
@@ -0,0 +1,299 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.ObjectName;
+
+/**
+ * Class collecting timings of the engine and the renderer.
+ * <p>
+ * Instrumentation is enabled by starting the JVM with -Dsnak3.metrics=true, or -Dsnak3.overlay=true to also show the
+ * measurements over the board. Every measuring site is guarded by the constant ENABLED, which the JIT folds away,
+ * so disabled instrumentation costs nothing beyond the untaken branch. Once enabled, the measurements are published as the
+ * MBean "snak3:type=EngineMetrics" and can be watched with JConsole or any other JMX client.
+ */
+public final class EngineMetrics implements EngineMetricsMBean {
+    /**
+     * True if the instrumentation is enabled.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("snak3.metrics") || Boolean.getBoolean("snak3.overlay");
+    /**
+     * Wait for the Frame monitor above which an acquisition counts as contended, an uncontended one takes a few dozen nanoseconds.
+     */
+    private static final long CONTENDED_NANOS = 1_000;
+    /**
+     * The single instance, null if the instrumentation is disabled.
+     */
+    private static final EngineMetrics INSTANCE = ENABLED ? register(new EngineMetrics()) : null;
+
+    /**
+     * Duration of Frame.tick().
+     */
+    final LatencyHistogram tick = new LatencyHistogram();
+    /**
+     * Lateness of the start of a tick of TickEngine against its ideal start time.
+     */
+    final LatencyHistogram tickLateness = new LatencyHistogram();
+    /**
+     * Time spent moving all snakes during a tick.
+     */
+    final LatencyHistogram move = new LatencyHistogram();
+    /**
+     * Duration of Frame.placeFruit().
+     */
+    final LatencyHistogram placeFruit = new LatencyHistogram();
+    /**
+     * Time spent publishing the snapshot of a tick.
+     */
+    final LatencyHistogram publish = new LatencyHistogram();
+    /**
+     * Duration of Frame.getFrame().
+     */
+    final LatencyHistogram getFrame = new LatencyHistogram();
+    /**
+     * Duration of GameBoard.paintComponent().
+     */
+    final LatencyHistogram paint = new LatencyHistogram();
+    /**
+     * Time between the starts of successive frames of ActiveBoard.
+     */
+    final LatencyHistogram frameInterval = new LatencyHistogram();
+    /**
+     * Time ActiveBoard spent rendering a frame, without the pacing.
+     */
+    final LatencyHistogram render = new LatencyHistogram();
+    /**
+     * Time from a key event to the end of the tick which applied it.
+     */
+    final LatencyHistogram keyToApplied = new LatencyHistogram();
+    /**
+     * Time from a key event to the painting of the tick which applied it.
+     */
+    final LatencyHistogram keyToRendered = new LatencyHistogram();
+    /**
+     * Time threads waited for the Frame monitor.
+     */
+    private final LatencyHistogram lockWait = new LatencyHistogram();
+    /**
+     * Number of contended acquisitions of the Frame monitor.
+     */
+    private final AtomicLong contended = new AtomicLong();
+    /**
+     * Bytes allocated by the tick thread during all measured ticks.
+     */
+    private final AtomicLong allocated = new AtomicLong();
+    /**
+     * Largest number of bytes allocated by the tick thread during a tick.
+     */
+    private final AtomicLong maxAllocated = new AtomicLong();
+    /**
+     * Allocation counter of the threads, null if the JVM does not provide one.
+     */
+    private final com.sun.management.ThreadMXBean threads;
+
+    /**
+     * Class constructor.
+     */
+    private EngineMetrics() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        this.threads = bean instanceof com.sun.management.ThreadMXBean sun && sun.isThreadAllocatedMemorySupported() ? sun : null;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server.
+     * @param metrics - metrics to be registered.
+     * @return the metrics.
+     */
+    private static EngineMetrics register(EngineMetrics metrics) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName("snak3:type=EngineMetrics"));
+        } catch (Exception e) {
+            System.out.println("Error registering metrics: " + e.getMessage());
+        }
+        return metrics;
+    }
+
+    /**
+     * Returns the metrics, has to be guarded by ENABLED.
+     * @return the single instance.
+     */
+    public static EngineMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records the time a thread waited for the Frame monitor.
+     * @param nanos - waiting time in nanoseconds.
+     */
+    void recordLockWait(long nanos) {
+        lockWait.record(nanos);
+        if (nanos >= CONTENDED_NANOS) {
+            contended.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of bytes allocated so far by the current thread.
+     * @return allocated bytes, 0 if unknown.
+     */
+    long allocatedBytes() {
+        return threads == null ? 0 : threads.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Records the bytes allocated by the tick thread during a tick.
+     * @param bytes - allocated bytes.
+     */
+    void recordAllocation(long bytes) {
+        allocated.addAndGet(bytes);
+        maxAllocated.accumulateAndGet(bytes, Math::max);
+    }
+
+    /**
+     * Returns the lines of text shown by the overlay.
+     * @return the lines.
+     */
+    String[] overlayLines() {
+        return new String[] {
+                String.format("tick   p50 %6d  p99 %6d us", getTickP50Micros(), getTickP99Micros()),
+                String.format("late   mean %5d  p99 %6d  max %6d us", getTickLatenessMeanMicros(), getTickLatenessP99Micros(),
+                        getTickLatenessMaxMicros()),
+                String.format("paint  p50 %6d  p99 %6d us", getPaintP50Micros(), getPaintP99Micros()),
+                String.format("lock   p99 %6d us, %d contended", getLockWaitP99Micros(), getContendedLocks()),
+                String.format("alloc  %d B/tick", getAllocatedBytesPerTick())
+        };
+    }
+
+    @Override
+    public long getTickCount() {
+        return tick.getCount();
+    }
+
+    @Override
+    public long getTickP50Micros() {
+        return tick.getPercentile(50) / 1000;
+    }
+
+    @Override
+    public long getTickP99Micros() {
+        return tick.getPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getTickMaxMicros() {
+        return tick.getMax() / 1000;
+    }
+
+    @Override
+    public long getTickLatenessMeanMicros() {
+        return tickLateness.getMean() / 1000;
+    }
+
+    @Override
+    public long getTickLatenessP99Micros() {
+        return tickLateness.getPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getTickLatenessMaxMicros() {
+        return tickLateness.getMax() / 1000;
+    }
+
+    @Override
+    public long getMoveP99Micros() {
+        return move.getPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getPlaceFruitP99Micros() {
+        return placeFruit.getPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getPublishP99Micros() {
+        return publish.getPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getGetFrameP99Micros() {
+        return getFrame.getPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getPaintP50Micros() {
+        return paint.getPercentile(50) / 1000;
+    }
+
+    @Override
+    public long getPaintP99Micros() {
+        return paint.getPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getFrameIntervalP99Micros() {
+        return frameInterval.getPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getFrameIntervalMaxMicros() {
+        return frameInterval.getMax() / 1000;
+    }
+
+    @Override
+    public long getRenderP99Micros() {
+        return render.getPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getKeyToAppliedP99Micros() {
+        return keyToApplied.getPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getKeyToRenderedP50Micros() {
+        return keyToRendered.getPercentile(50) / 1000;
+    }
+
+    @Override
+    public long getKeyToRenderedP99Micros() {
+        return keyToRendered.getPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getLockWaitP99Micros() {
+        return lockWait.getPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getContendedLocks() {
+        return contended.get();
+    }
+
+    @Override
+    public long getAllocatedBytesPerTick() {
+        long n = tick.getCount();
+        return n == 0 ? 0 : allocated.get() / n;
+    }
+
+    @Override
+    public long getMaxAllocatedBytesPerTick() {
+        return maxAllocated.get();
+    }
+
+    @Override
+    public void reset() {
+        tick.reset();
+        tickLateness.reset();
+        move.reset();
+        placeFruit.reset();
+        publish.reset();
+        getFrame.reset();
+        paint.reset();
+        frameInterval.reset();
+        render.reset();
+        keyToApplied.reset();
+        keyToRendered.reset();
+        lockWait.reset();
+        contended.set(0);
+        allocated.set(0);
+        maxAllocated.set(0);
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Management interface of EngineMetrics, registered as "snak3:type=EngineMetrics".
+ * Durations are reported in microseconds.
+ */
+public interface EngineMetricsMBean {
+    /**
+     * Returns the number of measured ticks.
+     * @return number of ticks.
+     */
+    long getTickCount();
+
+    /**
+     * Returns the median duration of Frame.tick().
+     * @return median in microseconds.
+     */
+    long getTickP50Micros();
+
+    /**
+     * Returns the 99th percentile of the duration of Frame.tick().
+     * @return percentile in microseconds.
+     */
+    long getTickP99Micros();
+
+    /**
+     * Returns the longest duration of Frame.tick().
+     * @return maximum in microseconds.
+     */
+    long getTickMaxMicros();
+
+    /**
+     * Returns the mean lateness of a tick of TickEngine against its ideal start time.
+     * @return mean in microseconds.
+     */
+    long getTickLatenessMeanMicros();
+
+    /**
+     * Returns the 99th percentile of the lateness of a tick of TickEngine against its ideal start time.
+     * @return percentile in microseconds.
+     */
+    long getTickLatenessP99Micros();
+
+    /**
+     * Returns the largest lateness of a tick of TickEngine against its ideal start time.
+     * @return maximum in microseconds.
+     */
+    long getTickLatenessMaxMicros();
+
+    /**
+     * Returns the 99th percentile of the time spent moving all snakes during a tick.
+     * @return percentile in microseconds.
+     */
+    long getMoveP99Micros();
+
+    /**
+     * Returns the 99th percentile of the duration of Frame.placeFruit().
+     * @return percentile in microseconds.
+     */
+    long getPlaceFruitP99Micros();
+
+    /**
+     * Returns the 99th percentile of the time spent publishing the snapshot of a tick.
+     * @return percentile in microseconds.
+     */
+    long getPublishP99Micros();
+
+    /**
+     * Returns the 99th percentile of the duration of Frame.getFrame().
+     * @return percentile in microseconds.
+     */
+    long getGetFrameP99Micros();
+
+    /**
+     * Returns the median duration of GameBoard.paintComponent().
+     * @return median in microseconds.
+     */
+    long getPaintP50Micros();
+
+    /**
+     * Returns the 99th percentile of the duration of GameBoard.paintComponent().
+     * @return percentile in microseconds.
+     */
+    long getPaintP99Micros();
+
+    /**
+     * Returns the 99th percentile of the time between the starts of successive frames of ActiveBoard.
+     * @return percentile in microseconds.
+     */
+    long getFrameIntervalP99Micros();
+
+    /**
+     * Returns the longest time between the starts of successive frames of ActiveBoard.
+     * @return maximum in microseconds.
+     */
+    long getFrameIntervalMaxMicros();
+
+    /**
+     * Returns the 99th percentile of the time ActiveBoard spent rendering a frame.
+     * @return percentile in microseconds.
+     */
+    long getRenderP99Micros();
+
+    /**
+     * Returns the 99th percentile of the time from a key event to the end of the tick which applied it.
+     * @return percentile in microseconds.
+     */
+    long getKeyToAppliedP99Micros();
+
+    /**
+     * Returns the median time from a key event to the painting of the tick which applied it.
+     * @return median in microseconds.
+     */
+    long getKeyToRenderedP50Micros();
+
+    /**
+     * Returns the 99th percentile of the time from a key event to the painting of the tick which applied it.
+     * @return percentile in microseconds.
+     */
+    long getKeyToRenderedP99Micros();
+
+    /**
+     * Returns the 99th percentile of the time threads waited for the Frame monitor.
+     * @return percentile in microseconds.
+     */
+    long getLockWaitP99Micros();
+
+    /**
+     * Returns the number of acquisitions of the Frame monitor which had to wait.
+     * @return number of contended acquisitions.
+     */
+    long getContendedLocks();
+
+    /**
+     * Returns the mean number of bytes allocated by the tick thread during a tick.
+     * @return bytes per tick.
+     */
+    long getAllocatedBytesPerTick();
+
+    /**
+     * Returns the largest number of bytes allocated by the tick thread during a tick.
+     * @return bytes.
+     */
+    long getMaxAllocatedBytesPerTick();
+
+    /**
+     * Removes all measurements.
+     */
+    void reset();
+}
@@ -1,7 +1,11 @@
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Consumer;
 
 import static java.lang.Math.abs;
 
@@ -18,31 +22,88 @@ public class Frame {
      */
     private final int cols;
     /**
-     * Holds the current state of each board pixel.
+     * Holds the current state of each board pixel in row-major order, also answers the collision checks.
      */
-    private final char[][] pixels;
+    private final BoardStore pixels;
     /**
-     * Collection of each snake's points, represents their position on the board.
+     * Cells whose pixel changed during the current tick.
      */
-    public final List<List<Point>> snakes;
+    private final IntList changedCells;
+    /**
+     * Publishes the board state to the renderer after each tick.
+     */
+    private final SnapshotBuffer snapshots;
+    /**
+     * Number of ticks executed so far.
+     */
+    private long epoch;
+    /**
+     * Body of each snake, represents their position on the board.
+     */
+    private final SnakeBody[] snakes;
     /**
      * Collection of obstacle points, represents their position on the board.
      */
     private final List<Point> obstacles;
     /**
-     * The point which represents fruit position on the board.
+     * Set of cells that are neither occupied nor hold the fruit, fruit is placed on one of them.
+     */
+    private final CellSet freeCells;
+    /**
+     * Seed of the game, every source of randomness of the game is derived from it.
+     */
+    private final long seed;
+    /**
+     * Source of randomness for fruit placement.
+     */
+    private final Random random;
+    /**
+     * Records the applied direction changes, null if the game is not recorded.
+     */
+    private ReplayWriter replay;
+    /**
+     * Receives the delta of every tick on the tick thread, null if nobody listens.
+     */
+    private Consumer<TickDelta> deltaListener;
+    /**
+     * Delta of the current tick, null until a delta listener is set.
+     */
+    private TickDelta delta;
+    /**
+     * The packed cell which represents fruit position on the board, -1 if there is no fruit.
      */
-    private Point fruit;
+    private int fruit;
     /**
      * An array holding the direction in which each snake will move based upon the index.
      */
     private final char[] directions;
+    /**
+     * Direction requested for each snake since the last tick, 0 if none.
+     * Written by controllers without locking, drained by the tick thread at the start of each tick.
+     */
+    private final AtomicIntegerArray intents;
     /**
      * An array holding the state of each snake's condition
      * False if snake is alive.
      * True if snake is dead.
      */
     private final boolean[] lost;
+    /**
+     * An array holding the ordinal of the reason of each snake's loss.
+     */
+    private final byte[] deathCause;
+    /**
+     * Indexes of the snakes still alive, in ascending order, only the first aliveCount entries are valid.
+     */
+    private final int[] alive;
+    /**
+     * Number of snakes still alive.
+     */
+    private int aliveCount;
+    /**
+     * All values of DeathCause, indexed by ordinal.
+     */
+    private static final DeathCause[] DEATH_CAUSES = DeathCause.values();
     /**
      * An array holding the current score of each snake.
      */
@@ -51,29 +112,88 @@ public class Frame {
      * Index of the frog.
      */
     private int frogIndex;
+    /**
+     * Proximity triggers registered by the controllers.
+     */
+    private final List<ProximityTrigger> triggers;
+    /**
+     * Spatial hash of the heads of the living snakes.
+     */
+    private final HeadIndex heads;
+    /**
+     * Receives the snake found by nearestHeadDistance().
+     */
+    private final int[] nearestSnake = new int[1];
+    /**
+     * Receives the distance found by nearestHeadDistance().
+     */
+    private final int[] nearestDistance = new int[1];
 
     /**
-     * Class constructor, initializes the board state.
+     * Class constructor, initializes the board state with the three default snakes.
      * @param rows - number of rows to be created.
      * @param cols - number of columns to be created.
      */
     public Frame(int rows, int cols) {
+        this(rows, cols, 3);
+    }
+
+    /**
+     * Class constructor, initializes the board state with a random seed.
+     * @param rows - number of rows to be created.
+     * @param cols - number of columns to be created.
+     * @param snakeCount - number of snakes, at least 3.
+     */
+    public Frame(int rows, int cols, int snakeCount) {
+        this(rows, cols, snakeCount, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Class constructor, initializes the board state.
+     * Snakes 0 to 2 are placed as in the default game, every further snake is placed on the first free spot
+     * of a regular grid of spots, heading west.
+     * Two frames created with the same arguments and given the same directions play exactly the same game.
+     * @param rows - number of rows to be created.
+     * @param cols - number of columns to be created.
+     * @param snakeCount - number of snakes, at least 3.
+     * @param seed - seed of the game.
+     */
+    public Frame(int rows, int cols, int snakeCount, long seed) {
+        if (snakeCount < 3 || snakeCount > Cell.MAX_SNAKES) {
+            throw new IllegalArgumentException("Invalid number of snakes: " + snakeCount);
+        }
         this.rows = rows;
         this.cols = cols;
-        this.score = new int[]{0, 0, 0};
-        this.pixels = new char[rows][cols];
-        this.snakes = new ArrayList<>();
+        this.score = new int[snakeCount];
+        this.pixels = BoardStore.create(rows * cols, snakeCount);
+        this.changedCells = new IntList(16);
+        this.freeCells = new CellSet(rows * cols);
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.fruit = -1;
+        for (int cell = 0; cell < rows * cols; cell++) {
+            freeCells.add(cell);
+        }
+        this.snakes = new SnakeBody[snakeCount];
         this.obstacles = new ArrayList<>();
-        this.directions = new char[3];
-        this.lost = new boolean[3];
+        this.triggers = new ArrayList<>();
+        this.heads = new HeadIndex(rows, cols, snakeCount);
+        this.directions = new char[snakeCount];
+        this.intents = new AtomicIntegerArray(snakeCount);
+        this.lost = new boolean[snakeCount];
+        this.deathCause = new byte[snakeCount];
+        this.alive = new int[snakeCount];
+        Arrays.fill(directions, 'W');
         directions[0] = 'N';
         directions[1] = 'W';
         directions[2] = 'S';
 
         clear();
-        initializeSnakes();
         placeObstacles();
+        initializeSnakes();
         placeFruit();
+        this.snapshots = new SnapshotBuffer(rows, cols, pixels, heads.heads());
+        changedCells.clear();
     }
 
     /**
@@ -83,55 +203,104 @@ public class Frame {
         int midRow = rows / 2;
 
         // Snake A
-        List<Point> snakeA = new ArrayList<>();
-        snakeA.add(new Point(midRow, 3));     // head A
-        snakeA.add(new Point(midRow, 4));     // body a
-        snakeA.add(new Point(midRow, 5));     // tail x
-        snakes.add(snakeA);
+        SnakeBody snakeA = new SnakeBody(cols, 3);
+        snakeA.addLast(midRow * cols + 3);     // head A
+        snakeA.addLast(midRow * cols + 4);     // body a
+        snakeA.addLast(midRow * cols + 5);     // tail x
+        snakes[0] = snakeA;
 
         // Snake B
-        List<Point> snakeB = new ArrayList<>();
-        snakeB.add(new Point(midRow + 2, 10+3)); // head B
-        //snakeB.add(new Point(midRow + 2, 10+4)); // body b
-        //snakeB.add(new Point(midRow + 2, 10+5)); // tail y
-        snakes.add(snakeB);
+        SnakeBody snakeB = new SnakeBody(cols, 1);
+        snakeB.addLast((midRow + 2) * cols + 10+3); // head B
+        //snakeB.addLast((midRow + 2) * cols + 10+4); // body b
+        //snakeB.addLast((midRow + 2) * cols + 10+5); // tail y
+        snakes[1] = snakeB;
         frogIndex = 1;
 
         // Snake S (user snake)
-        List<Point> snakeS = new ArrayList<>();
-        snakeS.add(new Point(midRow + 4, 3)); // head S
-        snakeS.add(new Point(midRow + 4, 4)); // body s
-        snakeS.add(new Point(midRow + 4, 5)); // tail z
-        snakes.add(snakeS);
+        SnakeBody snakeS = new SnakeBody(cols, 3);
+        snakeS.addLast((midRow + 4) * cols + 3); // head S
+        snakeS.addLast((midRow + 4) * cols + 4); // body s
+        snakeS.addLast((midRow + 4) * cols + 5); // tail z
+        snakes[2] = snakeS;
+
+        for (int i = 0; i < 3; i++) {
+            SnakeBody snake = snakes[i];
+            for (int j = 0; j < snake.size(); j++) {
+                int cell = snake.get(j);
+                occupy(cell);
+                setPixel(cell, j == 0 ? Cell.head(i) : Cell.body(i));
+            }
+        }
+
+        // Further snakes, three cells long, on every other row and every fourth column
+        int index = 3;
+        for (int row = 1; row < rows && index < snakes.length; row += 2) {
+            for (int col = 1; col + 2 < cols && index < snakes.length; col += 4) {
+                int head = row * cols + col;
+                if (!pixels.isFree(head) || !pixels.isFree(head + 1) || !pixels.isFree(head + 2)) {
+                    continue;
+                }
+                SnakeBody snake = new SnakeBody(cols, 3);
+                for (int j = 0; j < 3; j++) {
+                    snake.addLast(head + j);
+                    occupy(head + j);
+                    setPixel(head + j, j == 0 ? Cell.head(index) : Cell.body(index));
+                }
+                snakes[index++] = snake;
+            }
+        }
+        if (index < snakes.length) {
+            throw new IllegalArgumentException("Board too small for " + snakes.length + " snakes");
+        }
+
+        for (int i = 0; i < snakes.length; i++) {
+            alive[aliveCount++] = i;
+            heads.put(i, snakes[i].getFirst());
+        }
     }
 
     /**
      * Clears the board.
      */
     public void clear() {
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                pixels[i][j] = ' ';
-            }
+        for (int cell = 0; cell < pixels.size(); cell++) {
+            setPixel(cell, Cell.EMPTY);
         }
         //placeObstacles();
         //placeFruit();
     }
 
     /**
-     * Sets the direction "dir" in which the snake with index "index" will move.
+     * Requests the direction "dir" in which the snake with index "index" will move.
+     * Never blocks: the request is applied at the start of the next tick, where a direction opposite to the current one is ignored.
+     * Only the latest request made before a tick counts.
      * @param index - index of the snake.
      * @param dir - direction in which it will move.
      */
-    public synchronized void setDirection(int index, char dir) {
+    public void setDirection(int index, char dir) {
         if (index < 0 || index >= directions.length) {
             throw new IllegalArgumentException("Invalid snake index");
         }
-        if (!lost[index]) {
-            if(isOpposite(dir, index)){
-                return;
+        intents.set(index, dir);
+    }
+
+    /**
+     * Applies the direction requested for every living snake since the last tick.
+     */
+    private void applyIntents() {
+        for (int k = 0; k < aliveCount; k++) {
+            int i = alive[k];
+            if (intents.get(i) == 0) {
+                continue;
+            }
+            char dir = (char) intents.getAndSet(i, 0);
+            if (dir != directions[i] && !isOpposite(dir, i)) {
+                directions[i] = dir;
+                if (replay != null) {
+                    replay.direction(i, dir);
+                }
             }
-            directions[index] = dir;
         }
     }
 
@@ -145,52 +314,154 @@ public class Frame {
         obstacles.add(new Point(7, 7));
 
         for (Point p : obstacles) {
-            pixels[p.x][p.y] = 'p';
+            setPixel(p.x * cols + p.y, Cell.OBSTACLE);
+            occupy(p.x * cols + p.y);
         }
     }
 
     /**
      * Places the fruit on the board based on the current contents of the board.
-     */
-    private void placeFruit() {
-        List<Point> emptySpaces = new ArrayList<>();
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                if (pixels[row][col] == ' ' && !obstacles.contains(new Point(row, col)) && !isSnakeBody(row, col, 0) && !isSnakeBody(row, col, 1) && !isSnakeBody(row, col, 2)) {
-                    emptySpaces.add(new Point(row, col));
-                }
+     * If no cell is free there is no fruit until one is placed again.
+     */
+    void placeFruit() {
+        long start = EngineMetrics.ENABLED ? System.nanoTime() : 0;
+        releaseFruit();
+        if (!freeCells.isEmpty()) {
+            fruit = freeCells.pickRandom(random);
+            freeCells.remove(fruit);
+            setPixel(fruit, Cell.FRUIT);
+            if (deltaListener != null) {
+                delta.event(DeltaEvent.FRUIT, -1, fruit);
             }
+        } else {
+            // the old cell is taken by the snake which ate it
+            fruit = -1;
+        }
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.get().placeFruit.record(System.nanoTime() - start);
         }
+    }
 
-        if (!emptySpaces.isEmpty()) {
-            fruit = emptySpaces.get(new Random().nextInt(emptySpaces.size()));
-            pixels[fruit.x][fruit.y] = 'o';
+    /**
+     * Sets the state of a pixel and records it as changed during the current tick.
+     * @param cell - packed cell of the pixel.
+     * @param c - new state of the pixel.
+     */
+    private void setPixel(int cell, char c) {
+        if (pixels.get(cell) != c) {
+            pixels.set(cell, c);
+            changedCells.add(cell);
         }
     }
 
     /**
-     * Handles the updates of the board condition.
-     * @return the current state of the frame.
+     * Returns the cell of the current fruit to the free cells if no snake has eaten it.
      */
-    public synchronized char[][] getFrame() {
+    private void releaseFruit() {
+        if (fruit >= 0 && pixels.get(fruit) == Cell.FRUIT) {
+            setPixel(fruit, Cell.EMPTY);
+            freeCells.add(fruit);
+        }
+    }
 
-        notifyFrog();
+    /**
+     * Marks the cell as occupied, so that no fruit is placed on it.
+     * @param cell - packed cell.
+     */
+    private void occupy(int cell) {
+        freeCells.remove(cell);
+    }
 
-        for (int i = 0; i < directions.length; i++) {
-            if (!lost[i]) {
-                moveSnake(i, directions[i]);
+    /**
+     * Marks the cell as free.
+     * @param cell - packed cell.
+     */
+    private void release(int cell) {
+        freeCells.add(cell);
+    }
+
+    /**
+     * Advances the game by a single step, moving every living snake in its current direction.
+     * Called by the TickEngine at a fixed rate. Only living snakes are visited, so the cost depends
+     * on the number of moving heads, not on the number of snakes ever created or their length.
+     */
+    public void tick() {
+        if (!EngineMetrics.ENABLED) {
+            synchronized (this) {
+                advance();
             }
+            return;
+        }
+        EngineMetrics metrics = EngineMetrics.get();
+        long requested = System.nanoTime();
+        synchronized (this) {
+            long start = System.nanoTime();
+            long allocated = metrics.allocatedBytes();
+            metrics.recordLockWait(start - requested);
+            advance();
+            metrics.tick.record(System.nanoTime() - start);
+            metrics.recordAllocation(metrics.allocatedBytes() - allocated);
         }
-        for (int i = 0; i < lost.length; i++) {
-            if (lost[i]) {
-                clearSnake(i);
+    }
+
+    /**
+     * Executes a single tick, has to be called holding the monitor of the frame.
+     */
+    private void advance() {
+        applyIntents();
+
+        long start = EngineMetrics.ENABLED ? System.nanoTime() : 0;
+        int survivors = 0;
+        for (int k = 0; k < aliveCount; k++) {
+            int i = alive[k];
+            moveSnake(i, directions[i]);
+            if (!lost[i]) {
+                alive[survivors++] = i;
             }
         }
-        char[][] copy = new char[pixels.length][];
-        for (int i = 0; i < pixels.length; i++) {
-            copy[i] = pixels[i].clone();
+        aliveCount = survivors;
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.get().move.record(System.nanoTime() - start);
+        }
+        if (fruit < 0 && !freeCells.isEmpty()) {
+            // the board was full when the last fruit was eaten
+            placeFruit();
+        }
+        epoch++;
+        if (replay != null) {
+            replay.endTick(epoch);
         }
-        return copy;
+        if (deltaListener != null) {
+            delta.finish(epoch, changedCells);
+            deltaListener.accept(delta);
+            delta.clear();
+        }
+        fireTriggers();
+        if (EngineMetrics.ENABLED) {
+            start = System.nanoTime();
+        }
+        snapshots.publish(pixels, changedCells, heads.heads(), score, epoch);
+        changedCells.clear();
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.get().publish.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the latest published state of the board, does not advance the game.
+     * <p>
+     * The snapshot is neither copied nor locked, it stays unchanged until the next call.
+     * Intended for a single rendering thread.
+     * @return the current state of the frame.
+     */
+    public FrameSnapshot getFrame() {
+        if (EngineMetrics.ENABLED) {
+            long start = System.nanoTime();
+            FrameSnapshot snapshot = snapshots.acquire();
+            EngineMetrics.get().getFrame.record(System.nanoTime() - start);
+            return snapshot;
+        }
+        return snapshots.acquire();
     }
 
     /**
@@ -203,10 +474,12 @@ public class Frame {
         if (lost[index]) {
             return;
         }
-        List<Point> snake = snakes.get(index);
-        Point head = snake.getFirst();
-        int newRow = head.x;
-        int newCol = head.y;
+        SnakeBody snake = snakes[index];
+        int head = snake.getFirst();
+        int headRow = head / cols;
+        int headCol = head % cols;
+        int newRow = headRow;
+        int newCol = headCol;
 
         switch (dir) {
             case ' ': break;
@@ -216,34 +489,55 @@ public class Frame {
             case 'W': newCol--; break;
         }
 
-        if(newRow == head.x && newCol == head.y)
+        if(newRow == headRow && newCol == headCol)
         {
-            pixels[newRow][newCol] = (index == 0 ? 'a' : (index == 1 ? 'b' : 's'));
+            setPixel(head, Cell.body(index));
             return;
         }
 
-        if (!isInBounds(newRow, newCol) || isSnakeBody(newRow, newCol,0) || isSnakeBody(newRow, newCol,1) || isSnakeBody(newRow, newCol,2) || isObstacle(newRow, newCol)) {
+        if (!isInBounds(newRow, newCol) || isAnySnakeBody(newRow, newCol) || isObstacle(newRow, newCol)) {
             lost[index] = true;
-            for(Point p : snakes.get(index)) {
-                pixels[p.x][p.y] = ' ';
+            DeathCause cause;
+            if (!isInBounds(newRow, newCol)) {
+                cause = DeathCause.WALL;
+            } else if (isObstacle(newRow, newCol)) {
+                cause = DeathCause.OBSTACLE;
+            } else if (isSnakeBody(newRow, newCol, index)) {
+                cause = DeathCause.SELF;
+            } else {
+                cause = DeathCause.SNAKE;
             }
-            snakes.get(index).clear();
+            deathCause[index] = (byte) cause.ordinal();
+            if (deltaListener != null) {
+                delta.event(DeltaEvent.DIED, index, cause.ordinal());
+            }
+            clearSnake(index);
+            snake.clear();
+            heads.remove(index);
             return;
         }
 
-        snake.addFirst(new Point(newRow, newCol));
+        int newHead = newRow * cols + newCol;
+        snake.addFirst(newHead);
+        occupy(newHead);
+        heads.put(index, newHead);
 
-        if (new Point(newRow, newCol).equals(fruit)) {
+        boolean ate = newHead == fruit;
+        // the head covers the fruit before a new one is placed
+        setPixel(newHead, Cell.head(index));
+        if (ate) {
             score[index]++;
+            if (deltaListener != null) {
+                delta.event(DeltaEvent.ATE, index, newHead);
+            }
             placeFruit();
         } else {
-            Point tail = snake.removeLast();
-            pixels[tail.x][tail.y] = ' ';
+            int tail = snake.removeLast();
+            setPixel(tail, Cell.EMPTY);
+            release(tail);
         }
-        pixels[newRow][newCol] = (index == 0 ? 'A' : (index == 1 ? 'B' : 'S'));
-        for (int i = 1; i < snake.size(); i++) {
-            Point bodyPart = snake.get(i);
-            pixels[bodyPart.x][bodyPart.y] = (index == 0 ? 'a' : (index == 1 ? 'b' : 's'));
+        if (snake.size() > 1) {
+            setPixel(head, Cell.body(index));
         }
     }
 
@@ -265,13 +559,17 @@ public class Frame {
      * @return true if is, false otherwise.
      */
     private boolean isSnakeBody(int row, int col, int index) {
-        List<Point> snake = snakes.get(index);
-        for (int i = 0; i < snake.size(); i++) {  // Head isn't skipped
-            if (snake.get(i).equals(new Point(row, col))) {
-                return true;
-            }
-        }
-        return false;
+        return pixels.owner(row * cols + col) == index;  // Head isn't skipped
+    }
+
+    /**
+     * Checks whether a said pixel is a body of any snake.
+     * @param row - row of the pixel.
+     * @param col - column of the pixel.
+     * @return true if is, false otherwise.
+     */
+    private boolean isAnySnakeBody(int row, int col) {
+        return pixels.owner(row * cols + col) >= 0;
     }
 
     /**
@@ -279,12 +577,62 @@ public class Frame {
      * @param index - index of the snake to be cleared.
      */
     private void clearSnake(int index) {
-        List<Point> snake = snakes.get(index);
-        for (Point p : snake) {
-            pixels[p.x][p.y] = ' ';
+        SnakeBody snake = snakes[index];
+        for (int i = 0; i < snake.size(); i++) {
+            int cell = snake.get(i);
+            setPixel(cell, Cell.EMPTY);
+            release(cell);
+        }
+    }
+
+    /**
+     * Replaces the body of the snake with index "index", used by benchmarks to build long snakes.
+     * An empty body marks the snake as lost.
+     * @param index - index of the snake.
+     * @param cells - packed cells of the new body, head first, all of them have to be free.
+     */
+    synchronized void placeSnake(int index, int[] cells) {
+        for (int cell : cells) {
+            if ((!pixels.isFree(cell) && pixels.owner(cell) != index) || cell == fruit) {
+                throw new IllegalArgumentException("Cell is not free: " + cell);
+            }
+        }
+        clearSnake(index);
+        SnakeBody snake = snakes[index];
+        snake.clear();
+        for (int i = 0; i < cells.length; i++) {
+            snake.addLast(cells[i]);
+            occupy(cells[i]);
+            setPixel(cells[i], i == 0 ? Cell.head(index) : Cell.body(index));
+        }
+        lost[index] = cells.length == 0;
+        if (lost[index]) {
+            heads.remove(index);
+        } else {
+            heads.put(index, cells[0]);
+        }
+        aliveCount = 0;
+        for (int i = 0; i < snakes.length; i++) {
+            if (!lost[i]) {
+                alive[aliveCount++] = i;
+            }
         }
     }
 
+    /**
+     * Moves the fruit to the given free cell, used by benchmarks to keep the fruit out of a snake's way.
+     * @param cell - packed cell of the fruit.
+     */
+    synchronized void setFruit(int cell) {
+        if (!pixels.isFree(cell)) {
+            throw new IllegalArgumentException("Cell is not free: " + cell);
+        }
+        releaseFruit();
+        fruit = cell;
+        freeCells.remove(fruit);
+        setPixel(fruit, Cell.FRUIT);
+    }
+
     /**
      * Unused
      * @return number of board columns.
@@ -307,12 +655,17 @@ public class Frame {
      * @return true if is, false otherwise.
      */
     private boolean isObstacle(int row, int col) {
-        for (Point p : obstacles) {
-            if (p.x == row && p.y == col) {
-                return true;
-            }
-        }
-        return false;
+        return pixels.isObstacle(row * cols + col);
+    }
+
+    /**
+     * Checks whether a snake can move onto said pixel, that is whether it is on the board and neither an obstacle nor a snake.
+     * @param row - row of the pixel.
+     * @param col - column of the pixel.
+     * @return true if is, false otherwise.
+     */
+    public boolean isFree(int row, int col) {
+        return isInBounds(row, col) && pixels.isFree(row * cols + col);
     }
 
     /**
@@ -322,8 +675,9 @@ public class Frame {
      * @return true if is, false otherwise.
      */
     public boolean isValidMove(int index, char dir) {
-        Point head = snakes.get(index).getFirst();
-        int newRow = head.x, newCol = head.y;
+        SnakeBody snake = snakes[index];
+        if (snake.isEmpty()) return false;
+        int newRow = snake.headRow(), newCol = snake.headCol();
 
         switch (dir) {
             case 'N' -> newRow--;
@@ -339,13 +693,22 @@ public class Frame {
         return true;
     }
 
+    /**
+     * Returns a read-only view of the body of the snake with index "index".
+     * @param index - index of the snake.
+     * @return view of the snake's body.
+     */
+    public SnakeView getSnake(int index) {
+        return snakes[index];
+    }
+
     /**
      * Returns the distance from fruit of the point p.
      * @param p - point from which the distance is measured
      * @return distance from fruit.
      */
     int getDistanceFromFruit(Point p){
-        return abs(fruit.x - p.x) + abs(fruit.y-p.y);
+        return abs(fruit / cols - p.x) + abs(fruit % cols - p.y);
     }
 
     /**
@@ -353,7 +716,15 @@ public class Frame {
      * @return Point containing the fruit positon.
      */
     public Point getFruitPosition() {
-        return new Point(fruit.x, fruit.y);
+        return new Point(fruit / cols, fruit % cols);
+    }
+
+    /**
+     * Returns the position of the fruit as a packed cell.
+     * @return row * cols + col of the fruit, -1 if there is no fruit.
+     */
+    public int getFruitCell() {
+        return fruit;
     }
 
     /**
@@ -390,41 +761,169 @@ public class Frame {
     int getScore(){
     return score[2];}
 
+    /**
+     * Returns the number of snakes on the board.
+     * @return number of snakes.
+     */
+    public int getSnakeCount() {
+        return snakes.length;
+    }
+
+    /**
+     * Checks whether the snake with index "index" has lost the game.
+     * @param index - index of the snake.
+     * @return true if the snake lost, false otherwise.
+     */
+    public boolean isLost(int index) {
+        return lost[index];
+    }
+
+    /**
+     * Returns the reason why the snake with index "index" has lost the game.
+     * @param index - index of the snake.
+     * @return cause of death, NONE if the snake is alive.
+     */
+    public DeathCause getDeathCause(int index) {
+        return DEATH_CAUSES[deathCause[index]];
+    }
+
+    /**
+     * Returns the current score of the snake with index "index".
+     * @param index - index of the snake.
+     * @return current score of the snake.
+     */
+    public int getScore(int index) {
+        return score[index];
+    }
+
+    /**
+     * Returns the seed of the game.
+     * @return the seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Creates a source of randomness for the controller of the snake with index "index", derived from the seed of the game.
+     * Controllers get their own sources so that their choices do not disturb the fruit placement.
+     * @param index - index of the snake.
+     * @return a new source of randomness.
+     */
+    public Random createRandom(int index) {
+        return new Random(seed ^ 0x9E3779B97F4A7C15L * (index + 1));
+    }
+
+    /**
+     * Starts recording the applied direction changes, has to be called before the first tick.
+     * The caller closes the writer when the game is over.
+     * @param replay - the replay writer, null to stop recording.
+     */
+    public synchronized void setReplayWriter(ReplayWriter replay) {
+        this.replay = replay;
+    }
+
+    /**
+     * Sets the action receiving the changed cells and events of every tick, see TickDelta.
+     * It runs on the tick thread holding the monitor of the frame, so it has to be quick.
+     * @param deltaListener - the action, null to stop producing deltas.
+     */
+    public synchronized void setDeltaListener(Consumer<TickDelta> deltaListener) {
+        if (delta == null) {
+            delta = new TickDelta(this, pixels);
+        }
+        this.deltaListener = deltaListener;
+    }
+
+    /**
+     * Returns the number of ticks executed so far.
+     * @return number of ticks.
+     */
+    public long getTicks() {
+        return epoch;
+    }
+
     /**
      * Returns the shortest distance to Frog of any other snake's head.
      * @return shortest distance of snake head to Frog.
      */
     public int distanceToFrog()
     {
-        int minDistance = Integer.MAX_VALUE;
-        for(int i = 0; i < snakes.size(); i++)
+        return nearestHeadDistance(frogIndex);
+    }
+
+    /**
+     * Returns the shortest distance from the head of the snake with index "index" to the head of any other living snake.
+     * @param index - index of the snake.
+     * @return shortest distance, Integer.MAX_VALUE if the snake is dead or alone.
+     */
+    public synchronized int nearestHeadDistance(int index)
+    {
+        return nearestHeadDistance(index, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the shortest distance from the head of the snake with index "index" to the head of any other living snake
+     * not farther than "radius".
+     * @param index - index of the snake.
+     * @param radius - maximal distance of the other head.
+     * @return shortest distance, Integer.MAX_VALUE if there is no other head within the radius.
+     */
+    private int nearestHeadDistance(int index, int radius)
+    {
+        if (lost[index] || heads.nearest(snakes[index].getFirst(), 1, radius, index, nearestSnake, nearestDistance) == 0)
         {
-            if(i == frogIndex)
-                continue;
-            if(lost[i])
-                continue;
-            if(lost[frogIndex])
-            {
-                return minDistance;
-            }
-            Point head = snakes.get(i).getFirst();
-            var xDistance = head.x - snakes.get(frogIndex).getFirst().x;
-            var yDistance = head.y - snakes.get(frogIndex).getFirst().y;
+            return Integer.MAX_VALUE;
+        }
+        return nearestDistance[0];
+    }
 
-            minDistance = Math.min(minDistance, Math.abs(xDistance) + Math.abs(yDistance));
+    /**
+     * Finds the heads of the k living snakes nearest to the head of the snake with index "index", within distance "radius".
+     * @param index - index of the snake, its own head is skipped.
+     * @param k - maximal number of heads to be found.
+     * @param radius - maximal distance of a head.
+     * @param snakesOut - receives the indexes of the found snakes, nearest first, has to hold at least k entries.
+     * @param distancesOut - receives the distances of the found snakes, may be null.
+     * @return number of heads found, 0 if the snake is dead.
+     */
+    public synchronized int nearestHeads(int index, int k, int radius, int[] snakesOut, int[] distancesOut)
+    {
+        if (lost[index])
+        {
+            return 0;
         }
+        return heads.nearest(snakes[index].getFirst(), k, radius, index, snakesOut, distancesOut);
+    }
 
-        return minDistance;
+    /**
+     * Registers interest in other snakes coming closer than "radius" to the head of the snake with index "index".
+     * @param index - index of the watched snake.
+     * @param radius - distance below which the trigger fires.
+     * @return the trigger, fired after every tick that ends with another head in range.
+     */
+    public synchronized ProximityTrigger addProximityTrigger(int index, int radius)
+    {
+        if (index < 0 || index >= snakes.length) {
+            throw new IllegalArgumentException("Invalid snake index");
+        }
+        ProximityTrigger trigger = new ProximityTrigger(index, radius);
+        triggers.add(trigger);
+        return trigger;
     }
 
     /**
-     * Notifies the Frog thread if a head of any other snake is closer than 4 units.
+     * Fires every trigger whose watched snake has another head in range, at most once per tick.
      */
-    synchronized void notifyFrog()
+    private void fireTriggers()
     {
-        if(distanceToFrog() < 4)
+        for (int t = 0; t < triggers.size(); t++)
         {
-            notifyAll();
+            ProximityTrigger trigger = triggers.get(t);
+            if (nearestHeadDistance(trigger.getSnakeIndex(), trigger.getRadius() - 1) < trigger.getRadius())
+            {
+                trigger.fire(epoch);
+            }
         }
     }
 
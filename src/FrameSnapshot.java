@@ -0,0 +1,143 @@
+/**
+ * Class representing a published state of the board.
+ * <p>
+ * A snapshot handed out by Frame.getFrame() is not modified until the same reader asks for a newer one,
+ * so it can be read without locking and without copying.
+ */
+public class FrameSnapshot {
+    /**
+     * Number of rows on the board.
+     */
+    private final int rows;
+    /**
+     * Number of columns on the board.
+     */
+    private final int cols;
+    /**
+     * State of each board pixel in row-major order.
+     */
+    final BoardStore cells;
+    /**
+     * Packed head cell of each snake, -1 for a dead one.
+     */
+    final int[] heads;
+    /**
+     * Score of each snake.
+     */
+    final int[] scores;
+    /**
+     * Number of the tick this snapshot reflects.
+     */
+    long epoch;
+    /**
+     * Cells that may have changed after the tick changedSince, may contain duplicates.
+     */
+    final IntList changed;
+    /**
+     * Number of the tick the changed cells are relative to, -1 if they are not known.
+     */
+    long changedSince;
+
+    /**
+     * Class constructor.
+     * @param rows - number of rows on the board.
+     * @param cols - number of columns on the board.
+     * @param cells - store of the pixels, owned by the snapshot from now on.
+     * @param snakeCount - number of snakes.
+     */
+    FrameSnapshot(int rows, int cols, BoardStore cells, int snakeCount) {
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = cells;
+        this.heads = new int[snakeCount];
+        this.scores = new int[snakeCount];
+        this.changed = new IntList(16);
+        this.changedSince = -1;
+    }
+
+    /**
+     * Returns the state of a pixel.
+     * @param row - row of the pixel.
+     * @param col - column of the pixel.
+     * @return character representing the pixel.
+     */
+    public char get(int row, int col) {
+        return cells.get(row * cols + col);
+    }
+
+    /**
+     * Returns the head of the snake with index "index".
+     * @param index - index of the snake.
+     * @return packed cell (row * cols + col) of the head, -1 if the snake is dead.
+     */
+    public int getHead(int index) {
+        return heads[index];
+    }
+
+    /**
+     * Returns the score of the snake with index "index".
+     * @param index - index of the snake.
+     * @return score of the snake.
+     */
+    public int getScore(int index) {
+        return scores[index];
+    }
+
+    /**
+     * Returns the number of snakes.
+     * @return number of snakes.
+     */
+    public int getSnakeCount() {
+        return heads.length;
+    }
+
+    /**
+     * Returns the number of the tick the changed cells are relative to.
+     * Every cell that differs from the state after that tick is listed by getChangedCell().
+     * @return tick number, -1 if the changed cells are not known and the whole board has to be read.
+     */
+    public long getChangedSince() {
+        return changedSince;
+    }
+
+    /**
+     * Returns the number of changed cells.
+     * @return number of changed cells.
+     */
+    public int getChangedCount() {
+        return changed.size();
+    }
+
+    /**
+     * Returns the changed cell at position "i".
+     * @param i - position in the list of changed cells.
+     * @return packed cell (row * cols + col).
+     */
+    public int getChangedCell(int i) {
+        return changed.get(i);
+    }
+
+    /**
+     * Returns the number of rows on the board.
+     * @return number of rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns on the board.
+     * @return number of columns.
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Returns the number of the tick this snapshot reflects.
+     * @return tick number.
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+}
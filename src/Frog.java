@@ -1,12 +1,10 @@
-import java.awt.*;
-import java.util.*;
-import java.util.List;
+import java.util.Random;
 
 /**
- * Frog - a Snake-like controllable thread class.
+ * Frog - a Snake-like controllable class.
  * Used to simulate a chaotically moving snake when another Snake comes too close.
  */
-public class Frog extends Thread implements Snake {
+public class Frog implements Snake {
 
     /**
      * Attribute which holds the current state of the frame.
@@ -17,9 +15,22 @@ public class Frog extends Thread implements Snake {
      */
     private final int snakeIndex;
     /**
-     * Attribute which determines whether the Thread should be running.
+     * Attribute which holds the trigger fired when another snake comes closer than RADIUS.
      */
-    private volatile boolean running = true;
+    private final ProximityTrigger proximity;
+    /**
+     * Attribute which holds the source of the Frog's random moves.
+     */
+    private final Random random;
+
+    /**
+     * Distance from another snake's head below which the Frog starts moving.
+     */
+    private static final int RADIUS = 5;
+    /**
+     * Directions the Frog chooses from.
+     */
+    private static final char[] DIRECTIONS = {'N', 'S', 'E', 'W'};
 
     /**
      * Class constructor.
@@ -30,43 +41,23 @@ public class Frog extends Thread implements Snake {
         this.frame = frame;
         this.snakeIndex = snakeIndex;
         this.frame.setDirection(this.snakeIndex, ' ');
-    }
-
-    /**
-     * Implementation of run() from Thread class, defines the function which is executed by the thread upon creation.
-     * <p>
-     * In a loop calls the control() function.
-     */
-    @Override
-    public void run() {
-        while (running) {
-
-            control();
-
-        }
+        this.proximity = frame.addProximityTrigger(snakeIndex, RADIUS);
+        this.random = frame.createRandom(snakeIndex);
     }
 
     /**
      * The control of the Frog.
-     * Waits for a notification from the Frame, after which it starts moving chaotically, until it moves far enough away from other snakes.
+     * Moves chaotically during the ticks after which its proximity trigger fired, otherwise stays still. Never blocks.
      */
     public void control()
     {
-        synchronized (this.frame) {
-            if (frame.distanceToFrog() < 5)
-            {
-                frame.setDirection(snakeIndex, getRandomValidDirection());
-            }
-            else
-            {
-                frame.setDirection(snakeIndex, ' ');
-                try {
-                    this.frame.wait();
-                }
-                catch (InterruptedException e) {
-                    System.out.println(e.getMessage());
-                }
-            }
+        if (proximity.poll())
+        {
+            frame.setDirection(snakeIndex, getRandomValidDirection());
+        }
+        else
+        {
+            frame.setDirection(snakeIndex, ' ');
         }
     }
 
@@ -75,20 +66,6 @@ public class Frog extends Thread implements Snake {
      * @return a char of valid move direction.
      */
     private char getRandomValidDirection() {
-        final char[] DIRECTIONS = {'N', 'S', 'E', 'W'};
-        final Random random = new Random();
-
-        int index = random.nextInt(DIRECTIONS.length);
-
-        return DIRECTIONS[index];
+        return DIRECTIONS[random.nextInt(DIRECTIONS.length)];
     }
-
-    /**
-     * Unused
-     * Sets running to false.
-     */
-    public void stopRunning() {
-        running = false;
-    }
-
 }
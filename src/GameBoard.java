@@ -1,14 +1,91 @@
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.function.LongConsumer;
 
 /**
  * Class handling the painting of each frame.
+ * <p>
+ * The panel shows the part of the board chosen by a Camera. A board that fits the panel with cells of at least
+ * MIN_CELL_SIZE pixels is shown whole, a larger one is shown in cells of MIN_CELL_SIZE pixels around the head
+ * of the followed snake, the user snake unless chosen otherwise with -Dsnak3.follow=INDEX or follow().
+ * The image of the board is cached in chunks by BoardChunks, each tick writes the changed cells into the visible
+ * chunks and repaints just their regions. Chunks that scroll into view are redrawn whole if they are out of date,
+ * so the cost of a tick depends on the size of the panel and on the number of changed cells, not on the board.
  */
 public class GameBoard extends JPanel {
+    /**
+     * Smallest number of pixels per cell used when the board does not fit the panel.
+     */
+    static final int MIN_CELL_SIZE = 6;
     /**
      * Attribute that represents the current frame state.
      */
     private final Frame gameFrame;
+    /**
+     * Cached image of the board in chunks.
+     */
+    private final BoardChunks chunks;
+    /**
+     * Visible part of the board.
+     */
+    private final Camera camera = new Camera(Integer.getInteger("snak3.follow", 2));
+    /**
+     * True if the layout matches the size of the panel.
+     */
+    private boolean laidOut;
+    /**
+     * Width of the panel when the layout was computed.
+     */
+    private int panelWidth;
+    /**
+     * Height of the panel when the layout was computed.
+     */
+    private int panelHeight;
+    /**
+     * Width of a single cell on the panel.
+     */
+    private int cellWidth;
+    /**
+     * Height of a single cell on the panel.
+     */
+    private int cellHeight;
+    /**
+     * Number of the tick drawn into the cached chunks, -1 if none is.
+     */
+    private long paintedEpoch = -1;
+    /**
+     * Action notified with the number of the painted tick after every painting, may be null.
+     */
+    private LongConsumer paintListener;
+    /**
+     * True if the engine metrics are drawn over the board.
+     */
+    private final boolean overlay = EngineMetrics.ENABLED && Boolean.getBoolean("snak3.overlay");
+    /**
+     * Region covered by the overlay, repainted after every tick.
+     */
+    private static final Rectangle OVERLAY_BOUNDS = new Rectangle(0, 0, 320, 85);
+    /**
+     * Background of the overlay.
+     */
+    private static final Color OVERLAY_BACKGROUND = new Color(0, 0, 0, 160);
+    /**
+     * Font of the overlay.
+     */
+    private static final Font OVERLAY_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    /**
+     * Time between two updates of the overlay text in nanoseconds.
+     */
+    private static final long OVERLAY_PERIOD_NANOS = 250_000_000;
+    /**
+     * Lines of text shown by the overlay, null until first formatted.
+     */
+    private String[] overlayLines;
+    /**
+     * Time the overlay text was formatted.
+     */
+    private long overlayNanos;
 
     /**
      * Class constructor.
@@ -16,51 +93,194 @@ public class GameBoard extends JPanel {
      */
     public GameBoard(Frame gameFrame) {
         this.gameFrame = gameFrame;
+        this.chunks = new BoardChunks(gameFrame.getRows(), gameFrame.getCols());
+    }
+
+    /**
+     * Chooses the snake followed by the view of a board larger than the panel.
+     * @param index - index of the snake.
+     */
+    public void follow(int index) {
+        camera.follow(index);
+        repaint();
     }
 
     /**
-     * Function paints the objects based on their position in the frame.
+     * Updates the cached chunks with the latest frame state and repaints the changed regions.
+     * Has to be called on the Event Dispatch Thread after every tick.
+     */
+    public void refresh() {
+        FrameSnapshot pixels = gameFrame.getFrame();
+        if (!isLayoutValid()) {
+            repaint();
+            return;
+        }
+        if (pixels.getEpoch() == paintedEpoch) {
+            return;
+        }
+
+        boolean known = paintedEpoch >= 0 && pixels.getChangedSince() >= 0 && pixels.getChangedSince() <= paintedEpoch;
+        boolean moved = camera.update(pixels);
+        if (moved) {
+            retainVisible();
+        }
+        if (known) {
+            int cols = pixels.getCols();
+            for (int i = 0; i < pixels.getChangedCount(); i++) {
+                int cell = pixels.getChangedCell(i);
+                if (chunks.update(cell, pixels.get(cell / cols, cell % cols)) && !moved) {
+                    repaintCell(cell / cols, cell % cols);
+                }
+            }
+        } else {
+            chunks.invalidate();
+        }
+        renderVisible(pixels, !moved);
+        if (moved) {
+            repaint();
+        } else if (overlay) {
+            repaint(OVERLAY_BOUNDS);
+        }
+        paintedEpoch = pixels.getEpoch();
+    }
+
+    /**
+     * Function paints the visible chunks of the board, laying them out first if the panel size has changed.
      * @param g the <code>Graphics</code> object to protect
      */
     @Override
     protected void paintComponent(Graphics g) {
+        long start = EngineMetrics.ENABLED ? System.nanoTime() : 0;
         super.paintComponent(g);
-        char[][] pixels = gameFrame.getFrame();
+        if (!isLayoutValid()) {
+            layOut(gameFrame.getFrame());
+        }
+        if (laidOut) {
+            for (int chunkRow = camera.getFirstChunkRow(); chunkRow <= camera.getLastChunkRow(); chunkRow++) {
+                for (int chunkCol = camera.getFirstChunkCol(); chunkCol <= camera.getLastChunkCol(); chunkCol++) {
+                    BufferedImage image = chunks.getImage(chunkRow, chunkCol);
+                    if (image == null) {
+                        continue;
+                    }
+                    int x = (chunkCol * BoardChunks.CHUNK - camera.getCol()) * cellWidth;
+                    int y = (chunkRow * BoardChunks.CHUNK - camera.getRow()) * cellHeight;
+                    int block = chunks.getBlock();
+                    g.drawImage(image, x, y, image.getWidth() / block * cellWidth, image.getHeight() / block * cellHeight, null);
+                }
+            }
+            if (paintListener != null && paintedEpoch >= 0) {
+                paintListener.accept(paintedEpoch);
+            }
+        }
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.get().paint.record(System.nanoTime() - start);
+            if (overlay) {
+                paintOverlay(g);
+            }
+        }
+    }
 
-        int panelWidth = getWidth();
-        int panelHeight = getHeight();
-        int rows = pixels.length;
-        int cols = pixels[0].length;
+    /**
+     * Draws the engine metrics in the top left corner of the board.
+     * @param g - graphics of the panel.
+     */
+    private void paintOverlay(Graphics g) {
+        long now = System.nanoTime();
+        if (overlayLines == null || now - overlayNanos >= OVERLAY_PERIOD_NANOS) {
+            // the percentiles barely move between frames, so the text is formatted a few times per second
+            overlayLines = EngineMetrics.get().overlayLines();
+            overlayNanos = now;
+        }
+        g.setColor(OVERLAY_BACKGROUND);
+        g.fillRect(OVERLAY_BOUNDS.x, OVERLAY_BOUNDS.y, OVERLAY_BOUNDS.width, OVERLAY_BOUNDS.height);
+        g.setColor(Color.WHITE);
+        g.setFont(OVERLAY_FONT);
+        for (int i = 0; i < overlayLines.length; i++) {
+            g.drawString(overlayLines[i], OVERLAY_BOUNDS.x + 6, OVERLAY_BOUNDS.y + 16 + 15 * i);
+        }
+    }
 
-        int cellWidth = panelWidth / cols;
-        int cellHeight = panelHeight / rows;
+    /**
+     * Sets the action notified with the number of the painted tick after every painting.
+     * @param paintListener - the action, null for none.
+     */
+    public void setPaintListener(LongConsumer paintListener) {
+        this.paintListener = paintListener;
+    }
 
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                char c = pixels[row][col];
+    /**
+     * Checks whether the layout matches the panel size.
+     * @return true if the cached chunks can be updated incrementally, false otherwise.
+     */
+    private boolean isLayoutValid() {
+        return laidOut && panelWidth == getWidth() && panelHeight == getHeight();
+    }
 
-                switch (c) {
-                    case 'A': case 'a': case 'x':
-                        g.setColor(Color.RED); break;
-                    case 'B': case 'b': case 'y':
-                        g.setColor(Color.BLUE); break;
-                    case 'S': case 's': case 'z':
-                        g.setColor(Color.GREEN); break;
-                    case 'o':
-                        g.setColor(Color.ORANGE); break;
-                    case 'p':
-                        g.setColor(Color.DARK_GRAY); break;
-                    default:
-                        g.setColor(Color.WHITE);
-                }
+    /**
+     * Chooses the size of the cells and of the view for the current panel size, then draws the visible chunks.
+     * @param pixels - frame state to be drawn.
+     */
+    private void layOut(FrameSnapshot pixels) {
+        panelWidth = getWidth();
+        panelHeight = getHeight();
+        laidOut = panelWidth > 0 && panelHeight > 0;
+        if (!laidOut) {
+            paintedEpoch = -1;
+            return;
+        }
+        int rows = pixels.getRows();
+        int cols = pixels.getCols();
 
-                int x = col * cellWidth;
-                int y = row * cellHeight;
-                g.fillRect(x, y, cellWidth, cellHeight);
+        cellWidth = panelWidth / cols;
+        cellHeight = panelHeight / rows;
+        if (Math.min(cellWidth, cellHeight) < MIN_CELL_SIZE) {
+            cellWidth = MIN_CELL_SIZE;
+            cellHeight = MIN_CELL_SIZE;
+        }
+        camera.resize(Math.min(rows, (panelHeight + cellHeight - 1) / cellHeight),
+                Math.min(cols, (panelWidth + cellWidth - 1) / cellWidth));
+        // one block of pixels per cell, as large as a cell on screen so that the grid lines stay one pixel wide
+        chunks.reset(Math.min(cellWidth, cellHeight));
+        camera.update(pixels);
+        renderVisible(pixels, false);
+        paintedEpoch = pixels.getEpoch();
+    }
 
-                g.setColor(Color.GRAY); // grid line
-                g.drawRect(x, y, cellWidth, cellHeight);
+    /**
+     * Drops the cached chunks that are no longer visible.
+     */
+    private void retainVisible() {
+        chunks.retain(camera.getFirstChunkRow(), camera.getLastChunkRow(), camera.getFirstChunkCol(), camera.getLastChunkCol());
+    }
+
+    /**
+     * Redraws every visible chunk that is out of date.
+     * @param pixels - frame state to be drawn.
+     * @param repaintChunks - true if the regions of the redrawn chunks are to be repainted.
+     */
+    private void renderVisible(FrameSnapshot pixels, boolean repaintChunks) {
+        for (int chunkRow = camera.getFirstChunkRow(); chunkRow <= camera.getLastChunkRow(); chunkRow++) {
+            for (int chunkCol = camera.getFirstChunkCol(); chunkCol <= camera.getLastChunkCol(); chunkCol++) {
+                if (chunks.isDirty(chunkRow, chunkCol)) {
+                    chunks.render(pixels, chunkRow, chunkCol);
+                    if (repaintChunks) {
+                        repaint((chunkCol * BoardChunks.CHUNK - camera.getCol()) * cellWidth,
+                                (chunkRow * BoardChunks.CHUNK - camera.getRow()) * cellHeight,
+                                BoardChunks.CHUNK * cellWidth, BoardChunks.CHUNK * cellHeight);
+                    }
+                }
             }
         }
     }
+
+    /**
+     * Repaints the region of a single cell if it is visible.
+     * @param row - row of the cell.
+     * @param col - column of the cell.
+     */
+    private void repaintCell(int row, int col) {
+        if (camera.isVisible(row, col)) {
+            repaint((col - camera.getCol()) * cellWidth, (row - camera.getRow()) * cellHeight, cellWidth, cellHeight);
+        }
+    }
 }
@@ -0,0 +1,616 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Class running an authoritative game without any user interface, for remote players connected over TCP.
+ * <p>
+ * The Frame is advanced by a TickEngine on its own thread. A single network thread serves every connection through
+ * a non-blocking Selector: it applies the directions sent by the clients through Frame.setDirection(), the same
+ * lock-free path UserSnake uses. Every tick is encoded once on the tick thread by DeltaCodec, a delta of a few bytes
+ * per moving snake, and the network thread queues the same bytes for every client, see Protocol.
+ * A keyframe is encoded from the published snapshot every DeltaCodec.KEYFRAME_INTERVAL ticks, after the tick,
+ * and kept with the deltas following it. A joining client receives the last keyframe and these deltas,
+ * then follows the deltas like the others.
+ * <p>
+ * A client whose queue grows beyond the limit (--max-queue bytes) is not sent further ticks, its queue is cut
+ * and it receives the keyframe once its socket accepts data again. A client whose socket has not drained
+ * for STALL_MILLIS is disconnected. Memory per client is therefore bounded and a slow client never delays the others.
+ * Snakes 0 to bots - 1 are driven by BotSnakes, every following snake is given to a connecting client,
+ * further clients only watch. A new round starts once every snake has lost.
+ * <p>
+ * Usage: GameServer [--port=P] [--rows=R] [--cols=C] [--snakes=S] [--bots=B] [--tick=MILLIS] [--seed=SEED]
+ *                   [--max-queue=BYTES] [--max-ticks=T]
+ */
+public class GameServer {
+    /**
+     * Time a client may stay behind before it is disconnected.
+     */
+    private static final long STALL_MILLIS = 10_000;
+    /**
+     * Period of the statistics printed on the standard error.
+     */
+    private static final long REPORT_MILLIS = 5_000;
+    /**
+     * Size of the socket send buffer of a client, kept small so that a slow client shows up in its queue quickly.
+     */
+    private static final int SEND_BUFFER = 64 * 1024;
+
+    /**
+     * Port the server listens on.
+     */
+    private int port = Protocol.DEFAULT_PORT;
+    /**
+     * Number of rows of the board.
+     */
+    private int rows = 100;
+    /**
+     * Number of columns of the board.
+     */
+    private int cols = 100;
+    /**
+     * Number of snakes on the board.
+     */
+    private int snakes = 256;
+    /**
+     * Number of snakes driven by bots.
+     */
+    private int bots = 0;
+    /**
+     * Tick period in milliseconds.
+     */
+    private long tickMillis = 100;
+    /**
+     * Seed of the first round, round i is seeded with seed + i.
+     */
+    private long seed = ThreadLocalRandom.current().nextLong();
+    /**
+     * Largest number of bytes queued for a single client.
+     */
+    private int maxQueue = 256 * 1024;
+    /**
+     * Number of ticks after which the server stops, 0 to run forever.
+     */
+    private long maxTicks = 0;
+
+    /**
+     * Selector of the listening channel and every client channel.
+     */
+    private Selector selector;
+    /**
+     * Connected clients.
+     */
+    private final List<Connection> connections = new ArrayList<>();
+    /**
+     * Owner of each snake, null for a snake without a client.
+     */
+    private Connection[] owners;
+    /**
+     * Frame of the current round.
+     */
+    private Frame frame;
+    /**
+     * Engine advancing the current round.
+     */
+    private TickEngine engine;
+    /**
+     * Number of the current round.
+     */
+    private int round;
+    /**
+     * Messages encoded by the tick thread of the current round, not sent yet.
+     */
+    private ConcurrentLinkedQueue<ByteBuffer> outbox;
+    /**
+     * Set by the tick thread once every snake of the current round has lost.
+     */
+    private AtomicBoolean over;
+    /**
+     * Last keyframe of the current round, null before the first tick.
+     */
+    private ByteBuffer keyframe;
+    /**
+     * Deltas following the last keyframe.
+     */
+    private final List<ByteBuffer> sinceKeyframe = new ArrayList<>();
+    /**
+     * Number of ticks sent in the previous rounds.
+     */
+    private long previousTicks;
+    /**
+     * Number of bytes written to the clients.
+     */
+    private long bytesSent;
+    /**
+     * Number of times a client was cut off and resynchronized with a keyframe.
+     */
+    private long resyncs;
+    /**
+     * Number of clients disconnected for being too slow.
+     */
+    private long stalled;
+
+    /**
+     * Encoder of the ticks of a single round, used on the tick thread only.
+     */
+    static final class TickEncoder implements Consumer<TickDelta> {
+        /**
+         * Frame of the round.
+         */
+        final Frame frame;
+        /**
+         * Messages encoded for the network thread, not sent yet.
+         */
+        final ConcurrentLinkedQueue<ByteBuffer> outbox = new ConcurrentLinkedQueue<>();
+        /**
+         * Set once every snake of the round has lost.
+         */
+        final AtomicBoolean over = new AtomicBoolean();
+        /**
+         * Buffer the deltas are encoded into, grown to the largest delta.
+         */
+        private ByteBuffer scratch = ByteBuffer.allocate(1024);
+
+        /**
+         * Class constructor.
+         * @param frame - frame of the round.
+         */
+        TickEncoder(Frame frame) {
+            this.frame = frame;
+        }
+
+        /**
+         * Encodes the delta of a tick, called by the frame during the tick.
+         * The first tick of a round is only sent as a keyframe, as there is no state it could follow.
+         * @param delta - delta of the tick.
+         */
+        @Override
+        public void accept(TickDelta delta) {
+            if (delta.getEpoch() == 1) {
+                return;
+            }
+            int size = DeltaCodec.maxDeltaSize(delta);
+            if (scratch.capacity() < size) {
+                scratch = ByteBuffer.allocate(Math.max(size, 2 * scratch.capacity()));
+            }
+            scratch.clear();
+            DeltaCodec.encodeDelta(delta, scratch);
+            scratch.flip();
+            // the message is kept until the next keyframe, so it gets a buffer of its own size
+            outbox.add(ByteBuffer.allocate(scratch.remaining()).put(scratch).flip());
+        }
+
+        /**
+         * Encodes a keyframe if one is due and checks whether the round is over, called after every tick
+         * without holding the frame.
+         */
+        void afterTick() {
+            FrameSnapshot snapshot = frame.getFrame();
+            if (DeltaCodec.isKeyframe(snapshot.getEpoch(), DeltaCodec.KEYFRAME_INTERVAL)) {
+                outbox.add(DeltaCodec.encodeKeyframe(snapshot));
+            }
+            for (int i = 0; i < snapshot.getSnakeCount(); i++) {
+                if (snapshot.getHead(i) >= 0) {
+                    return;
+                }
+            }
+            over.set(true);
+        }
+    }
+
+    /**
+     * State of a single client.
+     */
+    static final class Connection {
+        /**
+         * Channel of the client.
+         */
+        final SocketChannel channel;
+        /**
+         * Key of the channel.
+         */
+        final SelectionKey key;
+        /**
+         * Messages waiting to be written, the first one may be partially written.
+         */
+        final ArrayDeque<ByteBuffer> queue = new ArrayDeque<>();
+        /**
+         * Buffer receiving the directions.
+         */
+        final ByteBuffer input = ByteBuffer.allocate(64);
+        /**
+         * Number of bytes in the queue.
+         */
+        long queued;
+        /**
+         * Index of the snake of the client, -1 for a spectator.
+         */
+        int snake = -1;
+        /**
+         * True if the client holds the state of the last delta sent, false while it waits for a keyframe.
+         */
+        boolean synced;
+        /**
+         * False from the time the queue of the client is cut until its socket is writable again with an empty queue.
+         */
+        boolean drained = true;
+        /**
+         * Time the client was cut off, in milliseconds.
+         */
+        long behindSince;
+
+        /**
+         * Class constructor.
+         * @param channel - channel of the client.
+         * @param key - key of the channel.
+         */
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+    }
+
+    /**
+     * Opens the listening channel and serves the clients until the tick limit is reached.
+     * @throws IOException if the server cannot listen.
+     */
+    void run() throws IOException {
+        selector = Selector.open();
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port), 1024);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        owners = new Connection[snakes];
+        System.err.printf("Listening on port %d, %dx%d board, %d snakes, %d bots, %d ms ticks%n",
+                port, rows, cols, snakes, bots, tickMillis);
+
+        startRound();
+        long nextReport = System.currentTimeMillis() + REPORT_MILLIS;
+        while (maxTicks == 0 || previousTicks + engine.getTicks() < maxTicks) {
+            selector.select(REPORT_MILLIS);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (!key.isValid()) {
+                    continue;
+                }
+                if (key.isAcceptable()) {
+                    accept(server);
+                    continue;
+                }
+                Connection connection = (Connection) key.attachment();
+                if (key.isReadable()) {
+                    read(connection);
+                }
+                if (key.isValid() && key.isWritable()) {
+                    flush(connection);
+                    if (connection.queue.isEmpty()) {
+                        // the socket accepts data again, the client can be resynchronized
+                        connection.drained = true;
+                    }
+                }
+            }
+
+            if (!outbox.isEmpty()) {
+                broadcast();
+            }
+            if (over.get()) {
+                previousTicks += engine.getTicks();
+                startRound();
+            }
+            long now = System.currentTimeMillis();
+            if (now >= nextReport) {
+                report();
+                nextReport = now + REPORT_MILLIS;
+            }
+        }
+        engine.stop();
+        report();
+        for (Connection connection : new ArrayList<>(connections)) {
+            close(connection);
+        }
+        server.close();
+        selector.close();
+    }
+
+    /**
+     * Starts a new round on a fresh frame and welcomes every connected client to it.
+     * The clients are sent the keyframe of the first tick.
+     */
+    private void startRound() {
+        if (engine != null) {
+            engine.stop();
+        }
+        frame = new Frame(rows, cols, snakes, seed + round);
+        List<Snake> controllers = new ArrayList<>();
+        for (int i = 0; i < Math.min(bots, snakes); i++) {
+            controllers.add(new BotSnake(frame, i));
+        }
+        // a tick of the previous round may still be finishing, so every round has its own encoder
+        TickEncoder encoder = new TickEncoder(frame);
+        frame.setDeltaListener(encoder);
+        engine = new TickEngine(frame, tickMillis, new ControllerScheduler(controllers), () -> {
+            encoder.afterTick();
+            selector.wakeup();
+        });
+        outbox = encoder.outbox;
+        over = encoder.over;
+        keyframe = null;
+        sinceKeyframe.clear();
+        round++;
+
+        // flush() may close a connection, so the list is walked backwards
+        for (int i = connections.size() - 1; i >= 0; i--) {
+            Connection connection = connections.get(i);
+            cut(connection);
+            connection.synced = false;
+            send(connection, welcome(connection), true);
+            flush(connection);
+        }
+        engine.start();
+    }
+
+    /**
+     * Accepts a new client and gives it a free snake.
+     * @param server - listening channel.
+     */
+    private void accept(ServerSocketChannel server) {
+        try {
+            SocketChannel channel = server.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, SEND_BUFFER);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            Connection connection = new Connection(channel, key);
+            key.attach(connection);
+            connections.add(connection);
+            for (int i = bots; i < snakes; i++) {
+                if (owners[i] == null) {
+                    owners[i] = connection;
+                    connection.snake = i;
+                    break;
+                }
+            }
+            send(connection, welcome(connection), true);
+            if (keyframe != null) {
+                catchUp(connection);
+            }
+            flush(connection);
+        } catch (IOException e) {
+            System.out.println("Error accepting a client: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Encodes the WELCOME message of a client for the current round.
+     * @param connection - the client.
+     * @return message ready to be written.
+     */
+    private ByteBuffer welcome(Connection connection) {
+        return Protocol.welcome(connection.snake, rows, cols, snakes, frame.getSeed());
+    }
+
+    /**
+     * Reads the directions sent by a client and applies them to its snake.
+     * @param connection - the client.
+     */
+    private void read(Connection connection) {
+        try {
+            int n = connection.channel.read(connection.input);
+            if (n < 0) {
+                close(connection);
+                return;
+            }
+            connection.input.flip();
+            while (connection.input.hasRemaining()) {
+                char dir = (char) connection.input.get();
+                if (connection.snake >= 0 && (dir == 'N' || dir == 'S' || dir == 'E' || dir == 'W')) {
+                    frame.setDirection(connection.snake, dir);
+                }
+            }
+            connection.input.clear();
+        } catch (IOException e) {
+            close(connection);
+        }
+    }
+
+    /**
+     * Sends the messages encoded since the last call. Deltas go to the clients holding the previous state,
+     * a client whose queue is full is cut off instead. Clients that are not synchronized receive the last keyframe
+     * and the deltas since once their socket has drained, or are disconnected if it does not drain in time.
+     */
+    private void broadcast() {
+        ByteBuffer message;
+        while ((message = outbox.poll()) != null) {
+            if (message.get(4) == Protocol.KEYFRAME) {
+                // clients following the deltas already hold this state
+                keyframe = message;
+                sinceKeyframe.clear();
+                continue;
+            }
+            sinceKeyframe.add(message);
+            for (int i = connections.size() - 1; i >= 0; i--) {
+                Connection connection = connections.get(i);
+                if (connection.synced && !send(connection, message.duplicate(), false)) {
+                    cut(connection);
+                    connection.synced = false;
+                    resyncs++;
+                }
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        for (int i = connections.size() - 1; i >= 0; i--) {
+            Connection connection = connections.get(i);
+            if (!connection.synced && keyframe != null) {
+                if (connection.drained) {
+                    catchUp(connection);
+                } else if (now - connection.behindSince > STALL_MILLIS) {
+                    stalled++;
+                    try {
+                        // reset the connection, so that the kernel drops the bytes the client never read
+                        connection.channel.setOption(StandardSocketOptions.SO_LINGER, 0);
+                    } catch (IOException e) {
+                        System.out.println("Error resetting a client: " + e.getMessage());
+                    }
+                    close(connection);
+                    continue;
+                }
+            }
+            flush(connection);
+        }
+    }
+
+    /**
+     * Queues the last keyframe and the deltas following it for a client that is not synchronized.
+     * @param connection - the client.
+     */
+    private void catchUp(Connection connection) {
+        send(connection, keyframe.duplicate(), true);
+        for (ByteBuffer delta : sinceKeyframe) {
+            send(connection, delta.duplicate(), true);
+        }
+        connection.synced = true;
+    }
+
+    /**
+     * Queues a message for a client.
+     * @param connection - the client.
+     * @param message - message ready to be written.
+     * @param force - true to queue the message even if the queue is over the limit.
+     * @return true if the message was queued, false if the queue is full.
+     */
+    private boolean send(Connection connection, ByteBuffer message, boolean force) {
+        if (!force && connection.queued + message.remaining() > maxQueue) {
+            return false;
+        }
+        connection.queue.addLast(message);
+        connection.queued += message.remaining();
+        return true;
+    }
+
+    /**
+     * Drops every queued message of a client except a partially written one, which has to be finished
+     * for the following message to be read correctly. A client that had anything queued is not drained
+     * until its socket is writable again.
+     * @param connection - the client.
+     */
+    private void cut(Connection connection) {
+        if (connection.queued > 0 && connection.drained) {
+            connection.drained = false;
+            connection.behindSince = System.currentTimeMillis();
+        }
+        ByteBuffer first = connection.queue.peekFirst();
+        connection.queue.clear();
+        connection.queued = 0;
+        if (first != null && first.position() > 0) {
+            connection.queue.addLast(first);
+            connection.queued = first.remaining();
+        }
+    }
+
+    /**
+     * Writes as much of the queue of a client as its socket accepts, and waits for the socket to be writable
+     * if anything is left or if the client has to drain.
+     * @param connection - the client.
+     */
+    private void flush(Connection connection) {
+        try {
+            while (!connection.queue.isEmpty()) {
+                ByteBuffer first = connection.queue.peekFirst();
+                int n = connection.channel.write(first);
+                bytesSent += n;
+                connection.queued -= n;
+                if (first.hasRemaining()) {
+                    break;
+                }
+                connection.queue.pollFirst();
+            }
+            if (connection.key.isValid()) {
+                int ops = connection.queue.isEmpty() && connection.drained ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+                if (connection.key.interestOps() != ops) {
+                    connection.key.interestOps(ops);
+                }
+            }
+        } catch (IOException e) {
+            close(connection);
+        }
+    }
+
+    /**
+     * Disconnects a client and frees its snake, which keeps moving in its last direction.
+     * @param connection - the client.
+     */
+    private void close(Connection connection) {
+        connections.remove(connection);
+        if (connection.snake >= 0) {
+            owners[connection.snake] = null;
+        }
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            System.out.println("Error closing a client: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Prints the state of the server on the standard error.
+     */
+    private void report() {
+        System.err.printf("round %d, tick %d, %d clients, %.1f MB sent, %d resyncs, %d stalled, tick lateness mean %.2f ms max %.2f ms%n",
+                round, engine.getTicks(), connections.size(), bytesSent / 1e6, resyncs, stalled,
+                engine.getMeanLatenessNanos() / 1e6, engine.getMaxLatenessNanos() / 1e6);
+    }
+
+    /**
+     * Parses a single command line option.
+     * @param arg - option in the form --name=value.
+     */
+    private void parse(String arg) {
+        int eq = arg.indexOf('=');
+        if (!arg.startsWith("--") || eq < 0) {
+            throw new IllegalArgumentException("Invalid option: " + arg);
+        }
+        String name = arg.substring(2, eq);
+        String value = arg.substring(eq + 1);
+        switch (name) {
+            case "port" -> port = Integer.parseInt(value);
+            case "rows" -> rows = Integer.parseInt(value);
+            case "cols" -> cols = Integer.parseInt(value);
+            case "snakes" -> snakes = Integer.parseInt(value);
+            case "bots" -> bots = Integer.parseInt(value);
+            case "tick" -> tickMillis = Long.parseLong(value);
+            case "seed" -> seed = Long.parseLong(value);
+            case "max-queue" -> maxQueue = Integer.parseInt(value);
+            case "max-ticks" -> maxTicks = Long.parseLong(value);
+            default -> throw new IllegalArgumentException("Unknown option: " + arg);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        GameServer server = new GameServer();
+        for (String arg : args) {
+            server.parse(arg);
+        }
+        server.run();
+    }
+}
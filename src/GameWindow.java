@@ -1,5 +1,6 @@
 import javax.swing.*;
 import java.awt.*;
+import java.util.List;
 
 /** unused */
 
@@ -22,19 +23,16 @@ public class GameWindow {
             window.addKeyListener(userSnake);
             window.setVisible(true);
 
-            userSnake.start();
-            botSnakeA.start();
-            botSnakeB.start();
-
-            // Use Swing Timer for reliable repainting
-            Timer repaintTimer = new Timer(100, e -> {
+            ControllerScheduler controllers = new ControllerScheduler(List.of(userSnake, botSnakeA, botSnakeB));
+            TickEngine[] tickEngine = new TickEngine[1];
+            tickEngine[0] = new TickEngine(gameFrame, 100, controllers, () -> {
                 if (gameFrame.isOver()) {
-                    ((Timer) e.getSource()).stop();
+                    tickEngine[0].stop();
                 } else {
-                    gamePanel.repaint();
+                    SwingUtilities.invokeLater(gamePanel::refresh);
                 }
             });
-            repaintTimer.start();
+            tickEngine[0].start();
         });
     }
 }
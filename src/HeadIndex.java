@@ -0,0 +1,192 @@
+import java.util.Arrays;
+
+/**
+ * Class representing a uniform grid spatial hash of the heads of living snakes.
+ * <p>
+ * The board is divided into square buckets of BUCKET x BUCKET cells, each holding an intrusive linked list of the snakes
+ * whose head lies in it. Moving a head costs O(1). A query visits rings of buckets around the queried cell, nearest first,
+ * and stops as soon as no further bucket can hold a closer head. Its cost depends on the density of heads
+ * around the cell, not on the number of snakes. Distances are Manhattan distances, as everywhere in the game.
+ */
+final class HeadIndex {
+    /**
+     * Number of rows and columns of cells covered by one bucket.
+     */
+    static final int BUCKET = 8;
+    /**
+     * Number of columns on the board.
+     */
+    private final int cols;
+    /**
+     * Number of rows of buckets.
+     */
+    private final int bucketRows;
+    /**
+     * Number of columns of buckets.
+     */
+    private final int bucketCols;
+    /**
+     * First snake in each bucket, -1 for an empty bucket.
+     */
+    private final int[] first;
+    /**
+     * Next snake in the bucket of each snake, -1 for the last one.
+     */
+    private final int[] next;
+    /**
+     * Previous snake in the bucket of each snake, -1 for the first one.
+     */
+    private final int[] prev;
+    /**
+     * Bucket of each snake, -1 if the snake is not indexed.
+     */
+    private final int[] bucket;
+    /**
+     * Packed head cell of each snake, -1 if the snake is not indexed.
+     */
+    private final int[] head;
+    /**
+     * Distances of the candidates collected by nearest(), reused between queries.
+     */
+    private int[] scratch = new int[1];
+
+    /**
+     * Class constructor, creates an empty index.
+     * @param rows - number of rows on the board.
+     * @param cols - number of columns on the board.
+     * @param snakeCount - number of snakes.
+     */
+    HeadIndex(int rows, int cols, int snakeCount) {
+        this.cols = cols;
+        this.bucketRows = (rows + BUCKET - 1) / BUCKET;
+        this.bucketCols = (cols + BUCKET - 1) / BUCKET;
+        this.first = new int[bucketRows * bucketCols];
+        this.next = new int[snakeCount];
+        this.prev = new int[snakeCount];
+        this.bucket = new int[snakeCount];
+        this.head = new int[snakeCount];
+        Arrays.fill(first, -1);
+        Arrays.fill(bucket, -1);
+        Arrays.fill(head, -1);
+    }
+
+    /**
+     * Records that the head of the snake with index "index" is now at "cell".
+     * @param index - index of the snake.
+     * @param cell - packed cell of the head.
+     */
+    void put(int index, int cell) {
+        int b = (cell / cols / BUCKET) * bucketCols + (cell % cols) / BUCKET;
+        if (bucket[index] == b) {
+            head[index] = cell;
+            return;
+        }
+        remove(index);
+        head[index] = cell;
+        bucket[index] = b;
+        prev[index] = -1;
+        next[index] = first[b];
+        if (first[b] >= 0) {
+            prev[first[b]] = index;
+        }
+        first[b] = index;
+    }
+
+    /**
+     * Removes the head of the snake with index "index", does nothing if it is not indexed.
+     * @param index - index of the snake.
+     */
+    void remove(int index) {
+        int b = bucket[index];
+        if (b < 0) {
+            return;
+        }
+        if (prev[index] >= 0) {
+            next[prev[index]] = next[index];
+        } else {
+            first[b] = next[index];
+        }
+        if (next[index] >= 0) {
+            prev[next[index]] = prev[index];
+        }
+        bucket[index] = -1;
+        head[index] = -1;
+    }
+
+    /**
+     * Returns the head cell of every snake, the array must not be modified.
+     * @return packed head cell of each snake, -1 for a snake that is not indexed.
+     */
+    int[] heads() {
+        return head;
+    }
+
+    /**
+     * Finds the k heads nearest to "cell" within distance "radius", ordered by distance.
+     * @param cell - packed cell the distances are measured from.
+     * @param k - maximal number of heads to be found.
+     * @param radius - maximal distance of a head.
+     * @param exclude - index of a snake to be skipped, -1 for none.
+     * @param snakesOut - receives the indexes of the found snakes, has to hold at least k entries.
+     * @param distancesOut - receives the distances of the found snakes, may be null.
+     * @return number of heads found.
+     */
+    int nearest(int cell, int k, int radius, int exclude, int[] snakesOut, int[] distancesOut) {
+        if (k <= 0 || radius < 0) {
+            return 0;
+        }
+        if (scratch.length < k) {
+            scratch = new int[k];
+        }
+        int[] distances = scratch;
+        int row = cell / cols;
+        int col = cell % cols;
+        int br = row / BUCKET;
+        int bc = col / BUCKET;
+        int maxRing = Math.max(Math.max(br, bucketRows - 1 - br), Math.max(bc, bucketCols - 1 - bc));
+        int found = 0;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // every cell of this ring is at least that far away
+            int bound = ring == 0 ? 0 : (ring - 1) * BUCKET + 1;
+            if (bound > radius || (found == k && distances[k - 1] <= bound)) {
+                break;
+            }
+            for (int dr = -ring; dr <= ring; dr++) {
+                int r = br + dr;
+                if (r < 0 || r >= bucketRows) {
+                    continue;
+                }
+                int step = (dr == -ring || dr == ring) ? 1 : Math.max(2 * ring, 1);
+                for (int dc = -ring; dc <= ring; dc += step) {
+                    int c = bc + dc;
+                    if (c < 0 || c >= bucketCols) {
+                        continue;
+                    }
+                    for (int i = first[r * bucketCols + c]; i >= 0; i = next[i]) {
+                        if (i == exclude) {
+                            continue;
+                        }
+                        int d = Math.abs(head[i] / cols - row) + Math.abs(head[i] % cols - col);
+                        if (d > radius || (found == k && d >= distances[k - 1])) {
+                            continue;
+                        }
+                        // insertion into the sorted candidates, dropping the farthest one when full
+                        int pos = found < k ? found++ : k - 1;
+                        while (pos > 0 && distances[pos - 1] > d) {
+                            distances[pos] = distances[pos - 1];
+                            snakesOut[pos] = snakesOut[pos - 1];
+                            pos--;
+                        }
+                        distances[pos] = d;
+                        snakesOut[pos] = i;
+                    }
+                }
+            }
+        }
+        if (distancesOut != null) {
+            System.arraycopy(distances, 0, distancesOut, 0, found);
+        }
+        return found;
+    }
+}
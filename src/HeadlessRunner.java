@@ -0,0 +1,280 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Class running many games without any user interface, as fast as the CPU allows.
+ * <p>
+ * Every game drives a Frame in lock-step with its controllers: each tick all controllers are asked for a decision,
+ * then the frame is advanced once. Games are spread over a thread pool using all available cores.
+ * Results are written as CSV or JSON, the throughput is reported on the standard error.
+ * Game i is seeded with the base seed + i and its bots search without a time budget, so the same seed always plays
+ * the same game. It can be recorded into DIR/game-i.snkr to be fast-forwarded by Replay,
+ * or as tick deltas into DIR/game-i.snkd to be played back without the engine, see DeltaDecoder.
+ * <p>
+ * Usage: HeadlessRunner [--games=N] [--rows=R] [--cols=C] [--snakes=S] [--max-ticks=T] [--threads=P] [--format=csv|json] [--out=FILE]
+ *                       [--seed=SEED] [--record=DIR] [--deltas=DIR]
+ */
+public class HeadlessRunner {
+    /**
+     * Number of games to be played.
+     */
+    private int games = 1000;
+    /**
+     * Number of rows of each board.
+     */
+    private int rows = 20;
+    /**
+     * Number of columns of each board.
+     */
+    private int cols = 20;
+    /**
+     * Number of snakes on each board.
+     */
+    private int snakes = 3;
+    /**
+     * Maximal number of ticks of a single game.
+     */
+    private int maxTicks = 10_000;
+    /**
+     * Number of threads playing the games.
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+    /**
+     * Output format, "csv" or "json".
+     */
+    private String format = "csv";
+    /**
+     * Output file, null for the standard output.
+     */
+    private String out;
+    /**
+     * Seed of the first game.
+     */
+    private long seed = ThreadLocalRandom.current().nextLong();
+    /**
+     * Directory receiving a replay of every game, null if the games are not recorded.
+     */
+    private String record;
+    /**
+     * Directory receiving the tick deltas of every game, null if they are not recorded.
+     */
+    private String deltas;
+
+    /**
+     * Result of a single game.
+     */
+    static final class GameResult {
+        /**
+         * Number of the game.
+         */
+        final int game;
+        /**
+         * Seed of the game.
+         */
+        final long seed;
+        /**
+         * Number of ticks the game lasted.
+         */
+        final long ticks;
+        /**
+         * Final score of each snake.
+         */
+        final int[] scores;
+        /**
+         * Cause of death of each snake.
+         */
+        final DeathCause[] causes;
+
+        /**
+         * Class constructor, records the final state of the frame.
+         * @param game - number of the game.
+         * @param frame - frame of the finished game.
+         */
+        GameResult(int game, Frame frame) {
+            this.game = game;
+            this.seed = frame.getSeed();
+            this.ticks = frame.getTicks();
+            this.scores = new int[frame.getSnakeCount()];
+            this.causes = new DeathCause[frame.getSnakeCount()];
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = frame.getScore(i);
+                causes[i] = frame.getDeathCause(i);
+            }
+        }
+    }
+
+    /**
+     * Plays a single game until every bot snake has lost or the tick limit is reached.
+     * Snake 1 is controlled by a Frog, every other snake by a BotSnake with an unbounded search.
+     * @param game - number of the game.
+     * @return result of the game.
+     * @throws IOException if the replay or the deltas cannot be written.
+     */
+    GameResult play(int game) throws IOException {
+        Frame frame = new Frame(rows, cols, snakes, seed + game);
+        ReplayWriter replay = null;
+        if (record != null) {
+            replay = new ReplayWriter(Path.of(record, "game-" + game + ".snkr"), frame);
+            frame.setReplayWriter(replay);
+        }
+        DeltaWriter deltaWriter = null;
+        if (deltas != null) {
+            deltaWriter = new DeltaWriter(Path.of(deltas, "game-" + game + ".snkd"), DeltaCodec.KEYFRAME_INTERVAL);
+            frame.setDeltaListener(deltaWriter);
+        }
+        List<Snake> snakes = new ArrayList<>(frame.getSnakeCount());
+        for (int i = 0; i < frame.getSnakeCount(); i++) {
+            snakes.add(i == 1 ? new Frog(frame, i) : new BotSnake(frame, i, BotSnake.UNBOUNDED));
+        }
+        // games already run in parallel, so the controllers of a game share its thread
+        ControllerScheduler controllers = new ControllerScheduler(snakes, 1);
+
+        while (frame.getTicks() < maxTicks && !allBotsLost(frame)) {
+            controllers.runTick();
+            frame.tick();
+            if (deltaWriter != null) {
+                deltaWriter.afterTick(frame);
+            }
+        }
+        if (replay != null) {
+            replay.close();
+        }
+        if (deltaWriter != null) {
+            deltaWriter.close();
+        }
+        return new GameResult(game, frame);
+    }
+
+    /**
+     * Checks whether every snake controlled by a BotSnake has lost.
+     * @param frame - frame of the game.
+     * @return true if all have lost, false otherwise.
+     */
+    private static boolean allBotsLost(Frame frame) {
+        for (int i = 0; i < frame.getSnakeCount(); i++) {
+            if (i != 1 && !frame.isLost(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Plays all games on a thread pool.
+     * @return results ordered by the game number.
+     * @throws InterruptedException if interrupted while waiting for the games.
+     * @throws ExecutionException if a game has failed.
+     */
+    List<GameResult> run() throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<GameResult>> futures = new ArrayList<>(games);
+            for (int i = 0; i < games; i++) {
+                int game = i;
+                futures.add(pool.submit(() -> play(game)));
+            }
+            List<GameResult> results = new ArrayList<>(games);
+            for (Future<GameResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Writes the results in the chosen format.
+     * @param results - results to be written.
+     * @param writer - destination of the results.
+     */
+    void write(List<GameResult> results, PrintWriter writer) {
+        if (format.equals("json")) {
+            writer.println("[");
+            for (int r = 0; r < results.size(); r++) {
+                GameResult result = results.get(r);
+                writer.print("  {\"game\": " + result.game + ", \"seed\": " + result.seed + ", \"ticks\": " + result.ticks + ", \"snakes\": [");
+                for (int i = 0; i < result.scores.length; i++) {
+                    writer.print((i > 0 ? ", " : "") + "{\"score\": " + result.scores[i] + ", \"death\": \"" + result.causes[i] + "\"}");
+                }
+                writer.println("]}" + (r < results.size() - 1 ? "," : ""));
+            }
+            writer.println("]");
+        } else {
+            writer.println("game,seed,ticks,snake,score,death");
+            for (GameResult result : results) {
+                for (int i = 0; i < result.scores.length; i++) {
+                    writer.println(result.game + "," + result.seed + "," + result.ticks + "," + i + "," + result.scores[i] + "," + result.causes[i]);
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Parses a single command line option.
+     * @param arg - option in the form --name=value.
+     */
+    private void parse(String arg) {
+        int eq = arg.indexOf('=');
+        if (!arg.startsWith("--") || eq < 0) {
+            throw new IllegalArgumentException("Invalid option: " + arg);
+        }
+        String name = arg.substring(2, eq);
+        String value = arg.substring(eq + 1);
+        switch (name) {
+            case "games" -> games = Integer.parseInt(value);
+            case "rows" -> rows = Integer.parseInt(value);
+            case "cols" -> cols = Integer.parseInt(value);
+            case "snakes" -> snakes = Integer.parseInt(value);
+            case "max-ticks" -> maxTicks = Integer.parseInt(value);
+            case "threads" -> threads = Integer.parseInt(value);
+            case "format" -> format = value;
+            case "out" -> out = value;
+            case "seed" -> seed = Long.parseLong(value);
+            case "record" -> record = value;
+            case "deltas" -> deltas = value;
+            default -> throw new IllegalArgumentException("Unknown option: " + arg);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        HeadlessRunner runner = new HeadlessRunner();
+        for (String arg : args) {
+            runner.parse(arg);
+        }
+
+        long start = System.nanoTime();
+        List<GameResult> results = runner.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long ticks = 0;
+        for (GameResult result : results) {
+            ticks += result.ticks;
+        }
+        System.err.printf("%d games, %d ticks in %.3f s: %.1f games/s, %.0f ticks/s on %d threads%n",
+                results.size(), ticks, seconds, results.size() / seconds, ticks / seconds, runner.threads);
+        if (EngineMetrics.ENABLED) {
+            for (String line : EngineMetrics.get().overlayLines()) {
+                System.err.println(line);
+            }
+        }
+
+        try (Writer destination = runner.out == null ? new PrintWriter(System.out) : new FileWriter(runner.out)) {
+            runner.write(results, new PrintWriter(destination));
+        } catch (IOException e) {
+            System.out.println("Error writing results: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class measuring how long a key press takes to change the game.
+ * <p>
+ * A press is followed through three steps: the UserSnake consumes it before a tick, the tick applies it,
+ * and the GameBoard paints the state of that tick. The time from the key event to the end of the tick and the time from
+ * the key event to the painting are recorded in EngineMetrics, nothing is followed while it is disabled.
+ * Only the latest press in flight is followed at each step.
+ */
+public class InputLatency {
+    /**
+     * Event time of the press consumed for the coming tick, -1 if none. Used by the tick thread only.
+     */
+    private long consumedNanos = -1;
+    /**
+     * Event time of the press applied but not painted yet, -1 if none.
+     */
+    private final AtomicLong appliedNanos = new AtomicLong(-1);
+    /**
+     * Number of the tick which applied appliedNanos.
+     */
+    private volatile long appliedEpoch;
+
+    /**
+     * Notes that a press is going to be applied by the coming tick, called by the UserSnake on the tick thread.
+     * @param pressedNanos - System.nanoTime() of the key event.
+     */
+    void consumed(long pressedNanos) {
+        consumedNanos = pressedNanos;
+    }
+
+    /**
+     * Records the press applied by the tick that has just finished, called on the tick thread.
+     * @param epoch - number of the tick.
+     */
+    public void applied(long epoch) {
+        if (!EngineMetrics.ENABLED || consumedNanos < 0) {
+            return;
+        }
+        EngineMetrics.get().keyToApplied.record(System.nanoTime() - consumedNanos);
+        appliedEpoch = epoch;
+        appliedNanos.set(consumedNanos);
+        consumedNanos = -1;
+    }
+
+    /**
+     * Records the applied press once the board showing its tick has been painted, called on the Event Dispatch Thread.
+     * @param epoch - number of the painted tick.
+     */
+    public void rendered(long epoch) {
+        if (!EngineMetrics.ENABLED) {
+            return;
+        }
+        long pressed = appliedNanos.get();
+        if (pressed < 0 || epoch < appliedEpoch) {
+            return;
+        }
+        // a press applied in the meantime is left for its own painting
+        if (appliedNanos.compareAndSet(pressed, -1)) {
+            EngineMetrics.get().keyToRendered.record(System.nanoTime() - pressed);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+import java.util.Arrays;
+
+/**
+ * Class representing a growable list of primitive ints, reused between ticks to avoid allocation.
+ */
+public class IntList {
+    /**
+     * Backing array, only the first size entries are valid.
+     */
+    private int[] values;
+    /**
+     * Number of values in the list.
+     */
+    private int size;
+
+    /**
+     * Class constructor.
+     * @param initialCapacity - initial capacity of the list.
+     */
+    public IntList(int initialCapacity) {
+        this.values = new int[Math.max(initialCapacity, 1)];
+    }
+
+    /**
+     * Appends the value to the list.
+     * @param value - value to be appended.
+     */
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length << 1);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Returns the value at position "i".
+     * @param i - position of the value.
+     * @return the value.
+     */
+    public int get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Invalid index: " + i);
+        }
+        return values[i];
+    }
+
+    /**
+     * Returns the number of values in the list.
+     * @return size of the list.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all values, keeps the capacity.
+     */
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,143 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Class representing a histogram of durations in nanoseconds with a bounded relative error.
+ * <p>
+ * Every power of two is split into SUB_BUCKETS linear buckets, so a recorded value is reported with an error below
+ * 1 / SUB_BUCKETS of its magnitude. Recording is lock-free, does not allocate and may happen on any thread.
+ */
+public class LatencyHistogram {
+    /**
+     * Number of linear buckets per power of two, has to be a power of two.
+     */
+    private static final int SUB_BUCKETS = 16;
+    /**
+     * Binary logarithm of SUB_BUCKETS.
+     */
+    private static final int SUB_BITS = 4;
+
+    /**
+     * Number of values recorded in each bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BITS + 1) * SUB_BUCKETS);
+    /**
+     * Number of recorded values.
+     */
+    private final AtomicLong count = new AtomicLong();
+    /**
+     * Sum of recorded values.
+     */
+    private final AtomicLong total = new AtomicLong();
+    /**
+     * Largest recorded value.
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a duration, negative durations are recorded as 0.
+     * @param nanos - duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Returns the bucket holding the value.
+     * @param value - non-negative value.
+     * @return index of the bucket.
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return magnitude * SUB_BUCKETS + (int) (value >>> magnitude);
+    }
+
+    /**
+     * Returns the largest value falling into the bucket.
+     * @param bucket - index of the bucket.
+     * @return upper bound of the bucket.
+     */
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int magnitude = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << magnitude;
+        return lower + (1L << magnitude) - 1;
+    }
+
+    /**
+     * Returns the number of recorded values.
+     * @return number of values.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     * @return mean in nanoseconds, 0 if nothing was recorded.
+     */
+    public long getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : total.get() / n;
+    }
+
+    /**
+     * Returns the largest recorded value.
+     * @return maximum in nanoseconds.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the value below which the given percentage of the recorded values lies.
+     * @param percentile - percentage between 0 and 100.
+     * @return the percentile in nanoseconds, 0 if nothing was recorded.
+     */
+    public long getPercentile(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(n * percentile / 100.0));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length(); bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(upperBound(bucket), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Removes all recorded values.
+     */
+    public void reset() {
+        for (int bucket = 0; bucket < counts.length(); bucket++) {
+            counts.set(bucket, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    /**
+     * Formats the count and the main percentiles in milliseconds.
+     * @return summary of the histogram.
+     */
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.2f p50=%.2f p99=%.2f max=%.2f ms", getCount(), getMean() / 1e6,
+                getPercentile(50) / 1e6, getPercentile(99) / 1e6, getMax() / 1e6);
+    }
+}
@@ -0,0 +1,330 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Class generating synthetic load on a GameServer: many clients on a single thread, each sending random directions
+ * and following the board from the keyframes and deltas it receives.
+ * <p>
+ * The first --slow clients never read, to check that the server cuts them off without delaying the others.
+ * Every other client rebuilds the board with a DeltaDecoder, which checks that each delta follows the state it holds.
+ * At the end the boards of the clients holding the same tick are compared, they all have to be equal.
+ * <p>
+ * Usage: LoadClient [--host=HOST] [--port=P] [--clients=N] [--slow=K] [--seconds=S] [--rate=PER_SECOND] [--seed=SEED]
+ */
+public class LoadClient {
+    /**
+     * Directions sent by the clients.
+     */
+    private static final char[] DIRECTIONS = {'N', 'S', 'E', 'W'};
+
+    /**
+     * Host of the server.
+     */
+    private String host = "localhost";
+    /**
+     * Port of the server.
+     */
+    private int port = Protocol.DEFAULT_PORT;
+    /**
+     * Number of clients.
+     */
+    private int clients = 200;
+    /**
+     * Number of clients that never read.
+     */
+    private int slow = 0;
+    /**
+     * Duration of the test in seconds.
+     */
+    private int seconds = 10;
+    /**
+     * Number of directions sent by each client per second.
+     */
+    private int rate = 5;
+    /**
+     * Seed of the directions.
+     */
+    private long seed = 1;
+
+    /**
+     * State of a single client.
+     */
+    static final class Client {
+        /**
+         * Channel of the client.
+         */
+        final SocketChannel channel;
+        /**
+         * True if the client never reads.
+         */
+        final boolean slow;
+        /**
+         * Buffer receiving the messages, grown to hold a keyframe.
+         */
+        ByteBuffer input = ByteBuffer.allocate(64 * 1024);
+        /**
+         * Index of the snake of the client, -1 for a spectator.
+         */
+        int snake = -1;
+        /**
+         * State of the game, replaced by every WELCOME.
+         */
+        DeltaDecoder decoder = new DeltaDecoder();
+        /**
+         * Number of keyframes received.
+         */
+        long keyframes;
+        /**
+         * Number of deltas received.
+         */
+        long ticks;
+        /**
+         * Number of bytes of the deltas received.
+         */
+        long deltaBytes;
+        /**
+         * Number of deltas that did not follow the state held by the client.
+         */
+        long gaps;
+        /**
+         * Number of bytes received.
+         */
+        long bytes;
+        /**
+         * True if the server has closed the connection.
+         */
+        boolean closed;
+
+        /**
+         * Class constructor.
+         * @param channel - channel of the client.
+         * @param slow - true if the client never reads.
+         */
+        Client(SocketChannel channel, boolean slow) {
+            this.channel = channel;
+            this.slow = slow;
+        }
+    }
+
+    /**
+     * Connects the clients, runs them for the chosen time and prints the results.
+     * @throws IOException if the clients cannot connect.
+     */
+    void run() throws IOException {
+        Selector selector = Selector.open();
+        List<Client> all = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Client client = new Client(channel, i < slow);
+            if (i < slow) {
+                // a slow client lets the socket buffers fill up
+                channel.socket().setReceiveBufferSize(4096);
+            } else {
+                channel.register(selector, SelectionKey.OP_READ, client);
+            }
+            all.add(client);
+        }
+
+        Random random = new Random(seed);
+        ByteBuffer direction = ByteBuffer.allocate(1);
+        long start = System.currentTimeMillis();
+        long end = start + seconds * 1000L;
+        long nextSend = start;
+        while (System.currentTimeMillis() < end) {
+            selector.select(Math.max(1, Math.min(nextSend, end) - System.currentTimeMillis()));
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                Client client = (Client) key.attachment();
+                if (key.isValid() && key.isReadable()) {
+                    read(client, key);
+                }
+            }
+            if (System.currentTimeMillis() >= nextSend) {
+                for (Client client : all) {
+                    if (client.snake >= 0 && !client.closed && random.nextInt(4) == 0) {
+                        direction.clear();
+                        direction.put((byte) DIRECTIONS[random.nextInt(DIRECTIONS.length)]).flip();
+                        try {
+                            client.channel.write(direction);
+                        } catch (IOException e) {
+                            client.closed = true;
+                        }
+                    }
+                }
+                nextSend += 1000 / Math.max(1, rate * 4);
+            }
+        }
+        double elapsed = (System.currentTimeMillis() - start) / 1000.0;
+        report(all, elapsed);
+        for (Client client : all) {
+            client.channel.close();
+        }
+        selector.close();
+    }
+
+    /**
+     * Reads and applies every complete message received by a client.
+     * @param client - the client.
+     * @param key - key of its channel.
+     */
+    private void read(Client client, SelectionKey key) {
+        try {
+            int n = client.channel.read(client.input);
+            if (n < 0) {
+                client.closed = true;
+                key.cancel();
+                return;
+            }
+            client.bytes += n;
+        } catch (IOException e) {
+            client.closed = true;
+            key.cancel();
+            return;
+        }
+        ByteBuffer input = client.input;
+        input.flip();
+        while (input.remaining() >= 4 && input.remaining() >= 4 + input.getInt(input.position())) {
+            int length = input.getInt();
+            int next = input.position() + length;
+            apply(client, input, length);
+            input.position(next);
+        }
+        if (input.remaining() >= 4 && 4 + input.getInt(input.position()) > input.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocate(4 + input.getInt(input.position()));
+            larger.put(input);
+            client.input = larger;
+        } else {
+            input.compact();
+        }
+    }
+
+    /**
+     * Applies a single message to the state of a client.
+     * @param client - the client.
+     * @param message - buffer positioned at the type of the message.
+     * @param length - number of bytes of the type and the payload.
+     */
+    private void apply(Client client, ByteBuffer message, int length) {
+        byte type = message.get();
+        if (type == Protocol.WELCOME) {
+            client.snake = message.getInt();
+            client.decoder = new DeltaDecoder();
+            return;
+        }
+        if (!client.decoder.apply(type, message)) {
+            client.gaps++;
+        } else if (type == Protocol.KEYFRAME) {
+            client.keyframes++;
+        } else {
+            client.ticks++;
+            client.deltaBytes += 4 + length;
+        }
+    }
+
+    /**
+     * Prints the results of the test.
+     * @param all - every client.
+     * @param elapsed - duration of the test in seconds.
+     */
+    private void report(List<Client> all, double elapsed) {
+        long ticks = 0;
+        long keyframes = 0;
+        long gaps = 0;
+        long bytes = 0;
+        long deltaBytes = 0;
+        int closed = 0;
+        int slowClosed = 0;
+        Map<Long, Map<Integer, Integer>> boards = new HashMap<>();
+        for (Client client : all) {
+            if (client.slow) {
+                if (!isOpen(client)) {
+                    slowClosed++;
+                }
+                continue;
+            }
+            ticks += client.ticks;
+            keyframes += client.keyframes;
+            gaps += client.gaps;
+            bytes += client.bytes;
+            deltaBytes += client.deltaBytes;
+            if (client.closed) {
+                closed++;
+            } else if (client.decoder.isSynchronized()) {
+                boards.computeIfAbsent(client.decoder.getEpoch(), e -> new HashMap<>()).merge(client.decoder.boardHash(), 1, Integer::sum);
+            }
+        }
+        int fast = all.size() - slow;
+        int mismatched = 0;
+        for (Map<Integer, Integer> states : boards.values()) {
+            mismatched += states.size() - 1;
+        }
+        System.out.printf("%d clients (%d slow) for %.1f s%n", all.size(), slow, elapsed);
+        System.out.printf("fast clients: %d closed by the server, %.1f ticks/s each, %d keyframes, %d gaps, %.2f MB/s received, %.1f bytes per delta%n",
+                closed, ticks / elapsed / Math.max(1, fast), keyframes, gaps, bytes / elapsed / 1e6, deltaBytes / (double) Math.max(1, ticks));
+        System.out.printf("slow clients: %d of %d disconnected by the server%n", slowClosed, slow);
+        System.out.printf("boards: %d distinct ticks held, %d diverging states%n", boards.size(), mismatched);
+    }
+
+    /**
+     * Checks whether the server still keeps a slow client connected, reading whatever is left without blocking.
+     * @param client - the client.
+     * @return true if the connection is open, false if the server has closed it.
+     */
+    private static boolean isOpen(Client client) {
+        try {
+            ByteBuffer drain = ByteBuffer.allocate(64 * 1024);
+            int n;
+            while ((n = client.channel.read(drain)) > 0) {
+                drain.clear();
+            }
+            return n == 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parses a single command line option.
+     * @param arg - option in the form --name=value.
+     */
+    private void parse(String arg) {
+        int eq = arg.indexOf('=');
+        if (!arg.startsWith("--") || eq < 0) {
+            throw new IllegalArgumentException("Invalid option: " + arg);
+        }
+        String name = arg.substring(2, eq);
+        String value = arg.substring(eq + 1);
+        switch (name) {
+            case "host" -> host = value;
+            case "port" -> port = Integer.parseInt(value);
+            case "clients" -> clients = Integer.parseInt(value);
+            case "slow" -> slow = Integer.parseInt(value);
+            case "seconds" -> seconds = Integer.parseInt(value);
+            case "rate" -> rate = Integer.parseInt(value);
+            case "seed" -> seed = Long.parseLong(value);
+            default -> throw new IllegalArgumentException("Unknown option: " + arg);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        LoadClient load = new LoadClient();
+        for (String arg : args) {
+            load.parse(arg);
+        }
+        load.run();
+    }
+}
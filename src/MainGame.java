@@ -1,8 +1,9 @@
 import javax.swing.*;
 import java.awt.*;
+import java.util.List;
 
 /**
- * Class handling the game state logic, creates all threads, displays the start and end panels.
+ * Class handling the game state logic, creates all controllers and the tick engine, displays the start and end panels.
  */
 public class MainGame extends JFrame {
     private CardLayout cardLayout;
@@ -14,9 +15,40 @@ public class MainGame extends JFrame {
     private Frame gameFrame;
 
     /**
-     * Class constructor, on creation displays the start menu.
+     * Engine advancing the current game at a fixed rate.
+     */
+    private TickEngine tickEngine;
+
+    /**
+     * Service reading and writing the score file in the background.
+     */
+    private final ScoreService scores = new ScoreService(new ScoreFile(PLAYER, BOARD_SIZE, BOARD_SIZE));
+
+    /**
+     * Duration of a single game tick in milliseconds.
+     */
+    private static final long TICK_MILLIS = 500;
+
+    /**
+     * Number of rows and columns of the board.
+     */
+    static final int BOARD_SIZE = 20;
+
+    /**
+     * Name under which the results of the player are saved.
+     */
+    static final String PLAYER = System.getProperty("user.name");
+
+    /**
+     * True if the board is rendered actively by ActiveBoard, enabled with -Dsnak3.active=true.
+     */
+    private static final boolean ACTIVE_RENDERING = Boolean.getBoolean("snak3.active");
+
+    /**
+     * Class constructor, on creation displays the start menu and starts loading the scores in the background.
      */
     public MainGame() {
+        scores.preload();
         setTitle("Snake Game");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
@@ -38,43 +70,59 @@ public class MainGame extends JFrame {
 
 
     /**
-     * Method launches the game, creates all the required objects, then runs the threads.
+     * Method launches the game, creates all the required objects, then starts the tick engine.
      */
     public void startGame() {
-        int bestScore = new ScoreFile().readScoreFile();
-        gameFrame = new Frame(20, 20);
-        GameBoard gameBoard = new GameBoard(gameFrame);
+        gameFrame = new Frame(BOARD_SIZE, BOARD_SIZE);
+        GameBoard gameBoard = ACTIVE_RENDERING ? null : new GameBoard(gameFrame);
+        ActiveBoard activeBoard = ACTIVE_RENDERING ? new ActiveBoard(gameFrame, TICK_MILLIS) : null;
 
         UserSnake userSnake = new UserSnake(gameFrame);
+        InputLatency inputLatency = userSnake.getInputLatency();
         Frog botSnakeB = new Frog(gameFrame, 1);
         BotSnake botSnakeA = new BotSnake(gameFrame, 0);
 
-        cards.add(gameBoard, "GameBoard");
+        if (ACTIVE_RENDERING) {
+            activeBoard.setPaintListener(inputLatency::rendered);
+            activeBoard.addKeyListener(userSnake);
+            cards.add(activeBoard, "GameBoard");
+        } else {
+            gameBoard.setPaintListener(inputLatency::rendered);
+            cards.add(gameBoard, "GameBoard");
+        }
         cardLayout.show(cards, "GameBoard");
 
         addKeyListener(userSnake);
         setFocusable(true);
         requestFocusInWindow();
-
-        userSnake.start();
-        botSnakeA.start();
-        botSnakeB.start();
-
-        new Thread(() -> {
-            while (!gameFrame.isOver()) {
-                try {
-                    Thread.sleep(500);
-                    SwingUtilities.invokeLater(() -> {
-                        gameBoard.revalidate();
-                        gameBoard.repaint();
-                    });
-                } catch (InterruptedException e) {
-                    return;
+        if (ACTIVE_RENDERING) {
+            cards.validate();
+            activeBoard.start();
+        }
+
+        ControllerScheduler controllers = new ControllerScheduler(List.of(userSnake, botSnakeA, botSnakeB));
+        tickEngine = new TickEngine(gameFrame, TICK_MILLIS, controllers, () -> {
+            inputLatency.applied(gameFrame.getTicks());
+            if (gameFrame.isOver()) {
+                tickEngine.stop();
+                if (ACTIVE_RENDERING) {
+                    activeBoard.stop();
                 }
+                int score = gameFrame.getScore();
+                // the best score is read before this result is saved, both in the background
+                scores.bestScore()
+                        .exceptionally(e -> {
+                            // the end panel has to appear even if the scores cannot be read
+                            System.out.println("Error reading best score: " + e.getMessage());
+                            return 0;
+                        })
+                        .thenAcceptAsync(bestScore -> showEndPanel(score, bestScore), SwingUtilities::invokeLater);
+                scores.save(PLAYER, score, BOARD_SIZE, BOARD_SIZE);
+            } else if (!ACTIVE_RENDERING) {
+                SwingUtilities.invokeLater(gameBoard::refresh);
             }
-
-            SwingUtilities.invokeLater(() -> showEndPanel(gameFrame.getScore(), bestScore));
-        }).start();
+        });
+        tickEngine.start();
 
     }
 
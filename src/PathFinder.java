@@ -0,0 +1,225 @@
+import java.util.Arrays;
+
+/**
+ * Class searching the board for the moves of a bot snake.
+ * <p>
+ * All search buffers are preallocated for the board size and reused: cells are marked visited by stamping them
+ * with a number that changes with every search, so no search allocates or clears anything.
+ * Searches give up once their deadline passes, the deadline is checked every CHECK_INTERVAL expanded cells.
+ */
+public class PathFinder {
+    /**
+     * Directions in the order they are tried.
+     */
+    private static final char[] DIRECTIONS = {'N', 'S', 'E', 'W'};
+    /**
+     * Row change of each direction.
+     */
+    private static final int[] ROW_STEP = {-1, 1, 0, 0};
+    /**
+     * Column change of each direction.
+     */
+    private static final int[] COL_STEP = {0, 0, 1, -1};
+    /**
+     * Number of cells expanded between two deadline checks.
+     */
+    private static final int CHECK_INTERVAL = 256;
+    /**
+     * One finder per thread, reused by every bot running on that thread.
+     */
+    private static final ThreadLocal<PathFinder> PER_THREAD = new ThreadLocal<>();
+
+    /**
+     * Number of rows of the board.
+     */
+    private final int rows;
+    /**
+     * Number of columns of the board.
+     */
+    private final int cols;
+    /**
+     * Queue of packed cells waiting to be expanded.
+     */
+    private final int[] queue;
+    /**
+     * Stamp of the search that last visited each cell.
+     */
+    private final int[] visited;
+    /**
+     * Index of the first direction taken from the head to reach each visited cell.
+     */
+    private final byte[] firstMove;
+    /**
+     * Stamp of the current search.
+     */
+    private int stamp;
+
+    /**
+     * Class constructor, allocates the buffers for the board size.
+     * @param rows - number of rows of the board.
+     * @param cols - number of columns of the board.
+     */
+    public PathFinder(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.queue = new int[rows * cols];
+        this.visited = new int[rows * cols];
+        this.firstMove = new byte[rows * cols];
+    }
+
+    /**
+     * Returns the finder of the calling thread for the board size, creating it on first use.
+     * @param rows - number of rows of the board.
+     * @param cols - number of columns of the board.
+     * @return the finder.
+     */
+    public static PathFinder forThread(int rows, int cols) {
+        PathFinder finder = PER_THREAD.get();
+        if (finder == null || finder.rows != rows || finder.cols != cols) {
+            finder = new PathFinder(rows, cols);
+            PER_THREAD.set(finder);
+        }
+        return finder;
+    }
+
+    /**
+     * Finds the first move of a shortest path from the head of the snake to the fruit using a breadth-first search.
+     * @param frame - current frame.
+     * @param index - index of the snake.
+     * @param deadline - System.nanoTime() after which the search gives up.
+     * @return direction of the first move, ' ' if there is no path or the deadline has passed.
+     */
+    public char findPath(Frame frame, int index, long deadline) {
+        SnakeView snake = frame.getSnake(index);
+        int fruit = frame.getFruitCell();
+        if (snake.size() == 0 || fruit < 0) {
+            return ' ';
+        }
+        int head = snake.headRow() * cols + snake.headCol();
+        int mark = nextStamp();
+        visited[head] = mark;
+
+        int tail = 0;
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            int next = neighbour(frame, head, d, mark);
+            if (next >= 0) {
+                if (next == fruit) {
+                    return DIRECTIONS[d];
+                }
+                visited[next] = mark;
+                firstMove[next] = (byte) d;
+                queue[tail++] = next;
+            }
+        }
+
+        for (int front = 0; front < tail; front++) {
+            if ((front & (CHECK_INTERVAL - 1)) == 0 && System.nanoTime() > deadline) {
+                return ' ';
+            }
+            int cell = queue[front];
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                int next = neighbour(frame, cell, d, mark);
+                if (next >= 0) {
+                    if (next == fruit) {
+                        return DIRECTIONS[firstMove[cell]];
+                    }
+                    visited[next] = mark;
+                    firstMove[next] = firstMove[cell];
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return ' ';
+    }
+
+    /**
+     * Chooses the move after which the snake can reach the most free cells, that is the move it survives the longest.
+     * Every valid move is considered even after the deadline has passed, only the counting is cut short.
+     * @param frame - current frame.
+     * @param index - index of the snake.
+     * @param deadline - System.nanoTime() after which the counting gives up.
+     * @return direction of the move, ' ' if no move is valid.
+     */
+    public char safestMove(Frame frame, int index, long deadline) {
+        SnakeView snake = frame.getSnake(index);
+        if (snake.size() == 0) {
+            return ' ';
+        }
+        int head = snake.headRow() * cols + snake.headCol();
+        char best = ' ';
+        int bestCount = 0;
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            int mark = nextStamp();
+            visited[head] = mark;
+            int start = neighbour(frame, head, d, mark);
+            if (start < 0) {
+                continue;
+            }
+            int count = countReachable(frame, start, mark, deadline);
+            if (count > bestCount) {
+                bestCount = count;
+                best = DIRECTIONS[d];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Counts the free cells reachable from "start" using a flood fill.
+     * @param frame - current frame.
+     * @param start - packed cell the fill starts from.
+     * @param mark - stamp of the current search.
+     * @param deadline - System.nanoTime() after which the counting gives up.
+     * @return number of reachable cells, including start.
+     */
+    private int countReachable(Frame frame, int start, int mark, long deadline) {
+        visited[start] = mark;
+        queue[0] = start;
+        int tail = 1;
+        int front = 0;
+        for (; front < tail; front++) {
+            if ((front & (CHECK_INTERVAL - 1)) == CHECK_INTERVAL - 1 && System.nanoTime() > deadline) {
+                break;
+            }
+            int cell = queue[front];
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                int next = neighbour(frame, cell, d, mark);
+                if (next >= 0) {
+                    visited[next] = mark;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Returns the neighbour of a cell in the given direction if a snake can move there and it was not visited yet.
+     * @param frame - current frame.
+     * @param cell - packed cell.
+     * @param d - index of the direction.
+     * @param mark - stamp of the current search.
+     * @return packed cell of the neighbour, -1 if it is blocked or visited.
+     */
+    private int neighbour(Frame frame, int cell, int d, int mark) {
+        int row = cell / cols + ROW_STEP[d];
+        int col = cell % cols + COL_STEP[d];
+        if (!frame.isFree(row, col)) {
+            return -1;
+        }
+        int next = row * cols + col;
+        return visited[next] == mark ? -1 : next;
+    }
+
+    /**
+     * Returns a stamp not used by any earlier search, clearing the visited marks when the stamps wrap around.
+     * @return the new stamp.
+     */
+    private int nextStamp() {
+        if (++stamp == 0) {
+            Arrays.fill(visited, 0);
+            stamp = 1;
+        }
+        return stamp;
+    }
+}
@@ -0,0 +1,72 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Class defining the messages exchanged by GameServer and its clients.
+ * <p>
+ * A client sends single bytes, each of them a direction 'N', 'S', 'E' or 'W' for its snake, applied like a key press.
+ * The server sends messages made of a 4 byte big-endian length of the rest of the message, a 1 byte type and a payload:
+ * <ul>
+ *     <li>WELCOME: index of the snake of the client (-1 for a spectator), rows, cols, number of snakes as 4 byte
+ *     big-endian numbers, then the 8 byte seed.
+ *     Sent on connection and at the start of every round.</li>
+ *     <li>KEYFRAME: the whole state after a tick, encoded by DeltaCodec.
+ *     Sent after WELCOME and whenever a client has missed ticks, followed by the deltas since.</li>
+ *     <li>DELTA: the cells changed by a tick and the events behind them, encoded by DeltaCodec.</li>
+ * </ul>
+ * A DELTA is only ever sent to a client that holds the state of the previous tick, DeltaDecoder rebuilds the state.
+ */
+final class Protocol {
+    /**
+     * Port the server listens on by default.
+     */
+    static final int DEFAULT_PORT = 7337;
+    /**
+     * Type of the message assigning a snake to the client.
+     */
+    static final byte WELCOME = 'W';
+    /**
+     * Type of the message holding the whole board.
+     */
+    static final byte KEYFRAME = 'K';
+    /**
+     * Type of the message holding the cells changed by a tick.
+     */
+    static final byte DELTA = 'D';
+    /**
+     * Number of bytes of the length and the type of a message.
+     */
+    static final int HEADER = 5;
+
+    /**
+     * Class constructor, not used.
+     */
+    private Protocol() {
+    }
+
+    /**
+     * Encodes a WELCOME message.
+     * @param snake - index of the snake of the client, -1 for a spectator.
+     * @param rows - number of rows on the board.
+     * @param cols - number of columns on the board.
+     * @param snakeCount - number of snakes.
+     * @param seed - seed of the round.
+     * @return message ready to be written.
+     */
+    static ByteBuffer welcome(int snake, int rows, int cols, int snakeCount, long seed) {
+        ByteBuffer message = start(WELCOME, 24);
+        message.putInt(snake).putInt(rows).putInt(cols).putInt(snakeCount).putLong(seed);
+        return message.flip();
+    }
+
+    /**
+     * Allocates a message and writes its header.
+     * @param type - type of the message.
+     * @param payload - number of bytes of the payload.
+     * @return buffer positioned at the start of the payload.
+     */
+    private static ByteBuffer start(byte type, int payload) {
+        ByteBuffer message = ByteBuffer.allocate(HEADER + payload);
+        message.putInt(1 + payload).put(type);
+        return message;
+    }
+}
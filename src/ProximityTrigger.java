@@ -0,0 +1,119 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Class representing the interest of a controller in other snakes coming close to a snake.
+ * <p>
+ * Registered with Frame.addProximityTrigger(). After every tick the frame fires the trigger if the head of another
+ * snake is closer to the watched head than the radius. Each firing wakes the controller at most once, either through poll()
+ * from a per-tick controller or through await() from a dedicated thread. The trigger uses its own lock,
+ * so a waiting controller never holds the frame's monitor.
+ */
+public class ProximityTrigger {
+    /**
+     * Index of the watched snake.
+     */
+    private final int snakeIndex;
+    /**
+     * Distance below which the trigger fires.
+     */
+    private final int radius;
+    /**
+     * Lock guarding the state of the trigger.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Condition signalled when the trigger fires.
+     */
+    private final Condition fired = lock.newCondition();
+    /**
+     * Number of the tick after which the trigger fired last, -1 if never.
+     */
+    private long firedTick = -1;
+    /**
+     * Number of the last tick whose firing was consumed by the controller.
+     */
+    private long consumedTick = -1;
+
+    /**
+     * Class constructor.
+     * @param snakeIndex - index of the watched snake.
+     * @param radius - distance below which the trigger fires.
+     */
+    ProximityTrigger(int snakeIndex, int radius) {
+        this.snakeIndex = snakeIndex;
+        this.radius = radius;
+    }
+
+    /**
+     * Returns the index of the watched snake.
+     * @return index of the snake.
+     */
+    public int getSnakeIndex() {
+        return snakeIndex;
+    }
+
+    /**
+     * Returns the distance below which the trigger fires.
+     * @return the radius.
+     */
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Fires the trigger for the given tick, called by the frame.
+     * @param tick - number of the tick just executed.
+     */
+    void fire(long tick) {
+        lock.lock();
+        try {
+            firedTick = tick;
+            fired.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Consumes the latest firing without blocking.
+     * @return true if the trigger fired after the last tick and that firing was not consumed yet, false otherwise.
+     */
+    public boolean poll() {
+        lock.lock();
+        try {
+            if (firedTick > consumedTick) {
+                consumedTick = firedTick;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until the trigger fires, then consumes the firing.
+     * @param timeout - maximal time to wait.
+     * @param unit - unit of the timeout.
+     * @return true if the trigger fired, false if the timeout elapsed.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (firedTick <= consumedTick) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = fired.awaitNanos(nanos);
+            }
+            consumedTick = firedTick;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ * Class fast-forwarding a game recorded by ReplayWriter, without any user interface or controller.
+ * <p>
+ * The frame is rebuilt from the seed and fed the recorded direction changes, which reproduces the game tick by tick,
+ * fruit placements included. The file is memory mapped and decoded in place.
+ * <p>
+ * Usage: Replay FILE [--repeat=N]
+ */
+public class Replay {
+    /**
+     * Contents of the replay file.
+     */
+    private final ByteBuffer data;
+
+    /**
+     * Class constructor, maps the replay file and checks its header.
+     * @param file - path of the replay file.
+     * @throws IOException if the file cannot be read or is not a replay.
+     */
+    public Replay(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            this.data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (data.limit() < 4 || data.getInt(0) != ReplayWriter.MAGIC) {
+            throw new IOException("Not a replay file: " + file);
+        }
+    }
+
+    /**
+     * Replays the whole game.
+     * @return frame in the state after the last recorded tick.
+     * @throws IOException if the file is truncated or of an unknown version.
+     */
+    public Frame play() throws IOException {
+        ByteBuffer in = data.duplicate();
+        in.position(4);
+        try {
+            int version = (int) getVarint(in);
+            if (version != ReplayWriter.VERSION) {
+                throw new IOException("Unsupported replay version: " + version);
+            }
+            int rows = (int) getVarint(in);
+            int cols = (int) getVarint(in);
+            int snakeCount = (int) getVarint(in);
+            Frame frame = new Frame(rows, cols, snakeCount, in.getLong());
+
+            int directions = ReplayWriter.DIRECTIONS.length();
+            while (true) {
+                long tick = frame.getTicks() + getVarint(in);
+                int count = (int) getVarint(in);
+                while (frame.getTicks() < tick - (count > 0 ? 1 : 0)) {
+                    frame.tick();
+                }
+                if (count == 0) {
+                    return frame;
+                }
+                for (int i = 0; i < count; i++) {
+                    int change = (int) getVarint(in);
+                    frame.setDirection(change / directions, ReplayWriter.DIRECTIONS.charAt(change % directions));
+                }
+                frame.tick();
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated replay file");
+        }
+    }
+
+    /**
+     * Reads a varint.
+     * @param in - buffer positioned at the varint.
+     * @return the decoded value.
+     */
+    private static long getVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: Replay FILE [--repeat=N]");
+            System.exit(2);
+        }
+        int repeat = 1;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--repeat=")) {
+                repeat = Integer.parseInt(args[i].substring("--repeat=".length()));
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        Replay replay = new Replay(Path.of(args[0]));
+        Frame frame = null;
+        long start = System.nanoTime();
+        for (int r = 0; r < repeat; r++) {
+            frame = replay.play();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("seed " + frame.getSeed() + ", " + frame.getTicks() + " ticks");
+        for (int i = 0; i < frame.getSnakeCount(); i++) {
+            System.out.println("snake " + i + ": score " + frame.getScore(i) + ", death " + frame.getDeathCause(i));
+        }
+        System.err.printf("%d replays in %.3f s: %.0f ticks/s%n", repeat, seconds, frame.getTicks() * repeat / seconds);
+    }
+}
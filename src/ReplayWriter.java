@@ -0,0 +1,174 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Class recording a game into a compact binary replay file.
+ * <p>
+ * Together with the seed, the direction changes applied by each tick fully determine a game, so nothing else is stored.
+ * The file starts with a header: the MAGIC number, the VERSION, then the number of rows, columns and snakes as varints,
+ * and the seed as 8 bytes. A record follows for every tick that changed a direction: the number of ticks since the previous
+ * record, the number of changes, and one varint per change holding snake index * 5 + direction code.
+ * A final record without changes gives the number of the last tick. Varints use 7 bits per byte, low bits first.
+ * Records are gathered in a direct buffer and written to the channel when it fills up.
+ */
+public class ReplayWriter implements AutoCloseable {
+    /**
+     * First four bytes of a replay file, "SNKR".
+     */
+    static final int MAGIC = 0x534E4B52;
+    /**
+     * Version of the format.
+     */
+    static final int VERSION = 1;
+    /**
+     * Directions indexed by their code.
+     */
+    static final String DIRECTIONS = "NSEW ";
+    /**
+     * Size of the write buffer.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Channel of the replay file.
+     */
+    private final FileChannel channel;
+    /**
+     * Bytes not written to the channel yet.
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    /**
+     * Encoded direction changes of the current tick.
+     */
+    private final IntList changes = new IntList(8);
+    /**
+     * Number of the tick of the last written record.
+     */
+    private long recordedTick;
+    /**
+     * Number of the last finished tick.
+     */
+    private long lastTick;
+    /**
+     * True once writing has failed, further records are dropped.
+     */
+    private boolean failed;
+
+    /**
+     * Class constructor, creates the file and writes the header.
+     * @param file - path of the replay file, replaced if it exists.
+     * @param frame - frame of the recorded game, must not have ticked yet.
+     * @throws IOException if the file cannot be created.
+     */
+    public ReplayWriter(Path file, Frame frame) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.recordedTick = frame.getTicks();
+        this.lastTick = recordedTick;
+        buffer.putInt(MAGIC);
+        putVarint(VERSION);
+        putVarint(frame.getRows());
+        putVarint(frame.getCols());
+        putVarint(frame.getSnakeCount());
+        buffer.putLong(frame.getSeed());
+    }
+
+    /**
+     * Records a direction change applied by the current tick, called by the frame.
+     * @param index - index of the snake.
+     * @param dir - new direction.
+     */
+    void direction(int index, char dir) {
+        int code = DIRECTIONS.indexOf(dir);
+        changes.add(index * DIRECTIONS.length() + (code < 0 ? DIRECTIONS.length() - 1 : code));
+    }
+
+    /**
+     * Finishes the current tick, writing its record if it changed any direction, called by the frame.
+     * @param tick - number of the finished tick.
+     */
+    void endTick(long tick) {
+        lastTick = tick;
+        if (changes.size() == 0) {
+            return;
+        }
+        writeRecord(tick, changes.size());
+        for (int i = 0; i < changes.size() && !failed; i++) {
+            ensureSpace(5);
+            putVarint(changes.get(i));
+        }
+        changes.clear();
+    }
+
+    /**
+     * Writes the start of a record.
+     * @param tick - number of the tick of the record.
+     * @param count - number of direction changes following.
+     */
+    private void writeRecord(long tick, int count) {
+        ensureSpace(15);
+        putVarint(tick - recordedTick);
+        putVarint(count);
+        recordedTick = tick;
+    }
+
+    /**
+     * Appends a non-negative varint to the buffer.
+     * @param value - value to be appended.
+     */
+    private void putVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Writes the buffer to the channel if it has less than "bytes" bytes left.
+     * On failure the error is printed and recording stops.
+     * @param bytes - number of bytes about to be appended.
+     */
+    private void ensureSpace(int bytes) {
+        if (buffer.remaining() >= bytes || failed) {
+            return;
+        }
+        try {
+            flush();
+        } catch (IOException e) {
+            System.out.println("Error writing replay: " + e.getMessage());
+            failed = true;
+        }
+    }
+
+    /**
+     * Writes the whole buffer to the channel.
+     * @throws IOException if writing fails.
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes the final record and closes the file.
+     * @throws IOException if writing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!failed) {
+                writeRecord(lastTick, 0);
+                flush();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+}
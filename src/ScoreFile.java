@@ -1,89 +1,480 @@
-import java.io.File;
 import java.io.IOException;
-import java.io.FileWriter;
-import java.util.Scanner;
-import java.io.FileNotFoundException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32C;
 
 /**
  * Class responsible for creating, reading and writing to the score file.
+ * <p>
+ * Results are appended to "scores.log" as fixed-size records, each protected by a CRC32C checksum, and forced to disk.
+ * A crash can therefore only lose the record being written, which is detected on the next start and overwritten by the
+ * next result. The log is never truncated in place, as that fails on Windows while the file is memory mapped.
+ * A damaged record anywhere else is skipped, the records following it are kept.
+ * On start the log is memory mapped and scanned once into in-memory top-K leaderboards: overall, per player and per board size.
+ * Queries never touch the file again. When most records no longer appear on any leaderboard the log is compacted:
+ * the remaining records are written to a temporary file which atomically replaces the log.
+ * A best score left in the old "scores.txt" is imported into a new log, for the player and board size given to the constructor.
  */
 public class ScoreFile {
     /**
-     * Method for creating a new score file.
-     * <p>
-     * Tries to create a new score file, if exists returns false, on exception it prints the message and returns true, returns true if file was created.
-     * @return true if new file was created or there was a failure, false otherwise.
+     * Number of results kept on every leaderboard.
      */
-    private static boolean createScoreFile()
+    public static final int TOP_K = 10;
+    /**
+     * First four bytes of the log, "SNKS".
+     */
+    private static final int MAGIC = 0x534E4B53;
+    /**
+     * Version of the log format.
+     */
+    private static final int VERSION = 1;
+    /**
+     * Size of the header of the log.
+     */
+    private static final int HEADER_SIZE = 16;
+    /**
+     * Size of a record: timestamp 8, score 4, rows 2, cols 2, name length 1, name NAME_BYTES, checksum 4.
+     */
+    private static final int RECORD_SIZE = 64;
+    /**
+     * Maximal length of a player name in UTF-8 bytes.
+     */
+    private static final int NAME_BYTES = 43;
+    /**
+     * Offset of the checksum within a record.
+     */
+    private static final int CHECKSUM_OFFSET = RECORD_SIZE - 4;
+    /**
+     * Smallest number of records in the log which triggers a compaction.
+     */
+    private static final int COMPACT_MIN = 256;
+
+    /**
+     * Path of the log.
+     */
+    private final Path path;
+    /**
+     * Player to whom the score of the old "scores.txt" is credited.
+     */
+    private final String legacyPlayer;
+    /**
+     * Number of board rows of the games of the old "scores.txt".
+     */
+    private final int legacyRows;
+    /**
+     * Number of board columns of the games of the old "scores.txt".
+     */
+    private final int legacyCols;
+    /**
+     * Number of records in the log, including damaged ones which are skipped, -1 until the log is loaded.
+     */
+    private long recordCount = -1;
+    /**
+     * True if the log could not be read, it is then left untouched.
+     */
+    private boolean damaged;
+    /**
+     * Best results overall.
+     */
+    private final List<ScoreRecord> top = new ArrayList<>();
+    /**
+     * Best results of each player.
+     */
+    private final Map<String, List<ScoreRecord>> topByPlayer = new HashMap<>();
+    /**
+     * Best results on each board size, keyed by rows and columns.
+     */
+    private final Map<Long, List<ScoreRecord>> topByBoard = new HashMap<>();
+
+    /**
+     * Class constructor, uses "scores.log" in the working directory.
+     * @param legacyPlayer - player to whom the score of the old "scores.txt" is credited.
+     * @param legacyRows - number of board rows of the games of the old "scores.txt".
+     * @param legacyCols - number of board columns of the games of the old "scores.txt".
+     */
+    public ScoreFile(String legacyPlayer, int legacyRows, int legacyCols) {
+        this(Path.of("scores.log"), legacyPlayer, legacyRows, legacyCols);
+    }
+
+    /**
+     * Class constructor.
+     * @param path - path of the log.
+     * @param legacyPlayer - player to whom the score of the old "scores.txt" is credited.
+     * @param legacyRows - number of board rows of the games of the old "scores.txt".
+     * @param legacyCols - number of board columns of the games of the old "scores.txt".
+     */
+    public ScoreFile(Path path, String legacyPlayer, int legacyRows, int legacyCols) {
+        this.path = path;
+        this.legacyPlayer = legacyPlayer;
+        this.legacyRows = legacyRows;
+        this.legacyCols = legacyCols;
+    }
+
+    /**
+     * Method for reading the best score from a file.
+     * Loads the log on first use, if there is no log the best score is 0.
+     * @return the current best score.
+     */
+    public synchronized int readScoreFile()
+    {
+        load();
+        return top.isEmpty() ? 0 : top.get(0).score();
+    }
+
+    /**
+     * Method to append the result of a game to the log.
+     * @param player - name of the player.
+     * @param score - score to be written to file.
+     * @param rows - number of board rows of the game.
+     * @param cols - number of board columns of the game.
+     * @return true if successful, false otherwise.
+     */
+    public synchronized boolean writeScoreFile(String player, int score, int rows, int cols)
     {
+        load();
+        if (damaged)
+        {
+            System.out.println("Error writing scores file: the file could not be read");
+            return false;
+        }
+        ScoreRecord record = new ScoreRecord(player, score, rows, cols, System.currentTimeMillis());
         try
         {
-            File scoreFile = new File("scores.txt");
-
-            if(!scoreFile.createNewFile())
-                return false;
-            else
-                System.out.println("Scores file created: " + scoreFile.getAbsolutePath());
+            append(record);
         }
         catch (IOException e)
         {
-            System.out.println("Error creating scores file: " + e.getMessage());
+            System.out.println("Error writing scores file: " + e.getMessage());
+            return false;
+        }
+        index(record);
+        if (recordCount >= COMPACT_MIN && recordCount > 2L * retained().size())
+        {
+            compact();
         }
-
         return true;
     }
 
     /**
-     * Method for reading the best score from a file.
-     * Calls createScoreFile(), if no file existed, the best score is set as 0.
-     * If there was a score file it reads the current best score.
-     * @return the current best score.
+     * Returns the best results overall.
+     * @return up to TOP_K results, best first.
+     */
+    public synchronized List<ScoreRecord> getTop()
+    {
+        load();
+        return List.copyOf(top);
+    }
+
+    /**
+     * Returns the best results of a player.
+     * @param player - name of the player.
+     * @return up to TOP_K results, best first.
+     */
+    public synchronized List<ScoreRecord> getTopForPlayer(String player)
+    {
+        load();
+        return List.copyOf(topByPlayer.getOrDefault(player, Collections.emptyList()));
+    }
+
+    /**
+     * Returns the best results on a board size.
+     * @param rows - number of board rows.
+     * @param cols - number of board columns.
+     * @return up to TOP_K results, best first.
      */
+    public synchronized List<ScoreRecord> getTopForBoard(int rows, int cols)
+    {
+        load();
+        return List.copyOf(topByBoard.getOrDefault(boardKey(rows, cols), Collections.emptyList()));
+    }
 
-    public int readScoreFile()
+    /**
+     * Loads the log into the leaderboards unless already loaded, creating it if it does not exist.
+     * Damaged records are skipped. Trailing bytes which do not form a whole valid record are ignored,
+     * the next appended record overwrites them.
+     */
+    private void load()
     {
-        int score = 0;
-        if(createScoreFile())
-            return score;
-        else
+        if (recordCount >= 0)
+            return;
+        recordCount = 0;
+        try
         {
-            try
+            if (!Files.exists(path))
+            {
+                create();
+                return;
+            }
+            long validEnd = HEADER_SIZE;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
             {
-                File scoreFile = new File("scores.txt");
-                Scanner scoreReader = new Scanner(scoreFile);
-                while(scoreReader.hasNextLine())
+                long size = channel.size();
+                if (size < HEADER_SIZE)
+                {
+                    throw new IOException("Scores file is truncated");
+                }
+                MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                data.order(ByteOrder.LITTLE_ENDIAN);
+                if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION || data.getInt(8) != RECORD_SIZE)
                 {
-                    String line = scoreReader.nextLine();
-                    score = Integer.parseInt(line);
+                    throw new IOException("Unsupported scores file");
+                }
+                CRC32C crc = new CRC32C();
+                int skipped = 0;
+                for (long offset = HEADER_SIZE; offset + RECORD_SIZE <= size; offset += RECORD_SIZE)
+                {
+                    ScoreRecord record = decode(data.slice((int) offset, RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN), crc);
+                    if (record == null && offset + 2L * RECORD_SIZE > size)
+                    {
+                        // a torn write can only affect the last record
+                        break;
+                    }
+                    if (record == null)
+                    {
+                        skipped++;
+                    }
+                    else
+                    {
+                        index(record);
+                    }
+                    recordCount++;
+                    validEnd = offset + RECORD_SIZE;
+                }
+                if (skipped > 0)
+                {
+                    System.out.println("Skipping damaged records in scores file: " + skipped);
+                }
+                if (validEnd < size)
+                {
+                    System.out.println("Ignoring damaged end of scores file: " + (size - validEnd) + " bytes");
                 }
-                scoreReader.close();
             }
-            catch (FileNotFoundException e)
+        }
+        catch (IOException e)
+        {
+            System.out.println("Error reading scores file: " + e.getMessage());
+            damaged = true;
+        }
+    }
+
+    /**
+     * Creates an empty log, importing the best score of the old "scores.txt" if there is one.
+     * @throws IOException if the log cannot be written.
+     */
+    private void create() throws IOException
+    {
+        writeLog(path, List.of());
+        Path legacy = path.resolveSibling("scores.txt");
+        if (Files.exists(legacy))
+        {
+            List<String> lines = Files.readAllLines(legacy);
+            if (!lines.isEmpty() && !lines.get(lines.size() - 1).isBlank())
             {
-                System.out.println("Error reading scores file: " + e.getMessage());
+                int score;
+                try
+                {
+                    score = Integer.parseInt(lines.get(lines.size() - 1).trim());
+                }
+                catch (NumberFormatException e)
+                {
+                    System.out.println("Error importing old scores file: " + e.getMessage());
+                    score = -1;
+                }
+                if (score >= 0)
+                {
+                    ScoreRecord record = new ScoreRecord(legacyPlayer, score, legacyRows, legacyCols,
+                            Files.getLastModifiedTime(legacy).toMillis());
+                    append(record);
+                    index(record);
+                }
             }
         }
-        return score;
+        System.out.println("Scores file created: " + path.toAbsolutePath());
     }
 
     /**
-     * Method to write current best score to file. Takes a score parameter, which is then saved to "scores.txt" file.
-     * @param score - score to be written to file.
-     * @return true if successful, false otherwise.
+     * Appends a record to the log and forces it to disk.
+     * @param record - record to be appended.
+     * @throws IOException if writing fails.
+     */
+    private void append(ScoreRecord record) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE))
+        {
+            ByteBuffer buffer = encode(record);
+            long position = HEADER_SIZE + recordCount * RECORD_SIZE;
+            while (buffer.hasRemaining())
+            {
+                position += channel.write(buffer, position);
+            }
+            channel.force(false);
+        }
+        recordCount++;
+    }
+
+    /**
+     * Rewrites the log with only the records appearing on a leaderboard, replacing it by an atomic rename.
      */
-    public boolean writeScoreFile(int score)
+    private void compact()
     {
+        List<ScoreRecord> records = new ArrayList<>(retained());
+        records.sort(Comparator.comparingLong(ScoreRecord::timestamp));
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
         try
         {
-            FileWriter scoreWriter = new FileWriter("scores.txt");
-            scoreWriter.write(Integer.toString(score));
-            scoreWriter.close();
+            writeLog(temporary, records);
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            recordCount = records.size();
         }
         catch (IOException e)
         {
-            System.out.println("Error writing scores file: " + e.getMessage());
-            return false;
+            System.out.println("Error compacting scores file: " + e.getMessage());
         }
-        return true;
+    }
+
+    /**
+     * Writes a complete log and forces it to disk.
+     * @param file - path of the log, replaced if it exists.
+     * @param records - records of the log.
+     * @throws IOException if writing fails.
+     */
+    private static void writeLog(Path file, List<ScoreRecord> records) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0).flip();
+            while (header.hasRemaining())
+            {
+                channel.write(header);
+            }
+            for (ScoreRecord record : records)
+            {
+                ByteBuffer buffer = encode(record);
+                while (buffer.hasRemaining())
+                {
+                    channel.write(buffer);
+                }
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Encodes a record.
+     * @param record - record to be encoded.
+     * @return buffer holding RECORD_SIZE bytes.
+     */
+    private static ByteBuffer encode(ScoreRecord record)
+    {
+        byte[] name = record.player().getBytes(StandardCharsets.UTF_8);
+        int nameLength = Math.min(name.length, NAME_BYTES);
+        // do not cut a multi-byte character in half
+        while (nameLength < name.length && nameLength > 0 && (name[nameLength] & 0xC0) == 0x80)
+            nameLength--;
+
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(record.timestamp())
+                .putInt(record.score())
+                .putShort((short) record.rows())
+                .putShort((short) record.cols())
+                .put((byte) nameLength)
+                .put(name, 0, nameLength);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, CHECKSUM_OFFSET);
+        buffer.putInt(CHECKSUM_OFFSET, (int) crc.getValue());
+        buffer.position(0);
+        return buffer;
+    }
+
+    /**
+     * Decodes a record.
+     * @param buffer - RECORD_SIZE bytes of the record.
+     * @param crc - checksum to be reused.
+     * @return the record, null if the checksum does not match.
+     */
+    private static ScoreRecord decode(ByteBuffer buffer, CRC32C crc)
+    {
+        crc.reset();
+        crc.update(buffer.slice(0, CHECKSUM_OFFSET));
+        if ((int) crc.getValue() != buffer.getInt(CHECKSUM_OFFSET))
+            return null;
+        long timestamp = buffer.getLong(0);
+        int score = buffer.getInt(8);
+        int rows = Short.toUnsignedInt(buffer.getShort(12));
+        int cols = Short.toUnsignedInt(buffer.getShort(14));
+        int nameLength = Math.min(Byte.toUnsignedInt(buffer.get(16)), NAME_BYTES);
+        byte[] name = new byte[nameLength];
+        buffer.get(17, name);
+        return new ScoreRecord(new String(name, StandardCharsets.UTF_8), score, rows, cols, timestamp);
+    }
+
+    /**
+     * Adds a record to every leaderboard it belongs to.
+     * @param record - record to be added.
+     */
+    private void index(ScoreRecord record)
+    {
+        insert(top, record);
+        insert(topByPlayer.computeIfAbsent(record.player(), p -> new ArrayList<>(TOP_K + 1)), record);
+        insert(topByBoard.computeIfAbsent(boardKey(record.rows(), record.cols()), b -> new ArrayList<>(TOP_K + 1)), record);
+    }
+
+    /**
+     * Inserts a record into a leaderboard, keeping it sorted and at most TOP_K long.
+     * @param board - leaderboard, best first.
+     * @param record - record to be inserted.
+     */
+    private static void insert(List<ScoreRecord> board, ScoreRecord record)
+    {
+        int position = board.size();
+        while (position > 0 && record.ranksAbove(board.get(position - 1)))
+            position--;
+        if (position < TOP_K)
+        {
+            board.add(position, record);
+            if (board.size() > TOP_K)
+                board.remove(TOP_K);
+        }
+    }
+
+    /**
+     * Returns the records appearing on at least one leaderboard.
+     * @return set of records compared by identity.
+     */
+    private Set<ScoreRecord> retained()
+    {
+        Set<ScoreRecord> records = Collections.newSetFromMap(new IdentityHashMap<>());
+        records.addAll(top);
+        topByPlayer.values().forEach(records::addAll);
+        topByBoard.values().forEach(records::addAll);
+        return records;
+    }
+
+    /**
+     * Combines a board size into a map key.
+     * @param rows - number of board rows.
+     * @param cols - number of board columns.
+     * @return key of the board size.
+     */
+    private static long boardKey(int rows, int cols)
+    {
+        return (long) rows << 32 | cols;
     }
 }
@@ -0,0 +1,18 @@
+/**
+ * Class representing a single result stored in the score log.
+ * @param player - name of the player.
+ * @param score - score achieved.
+ * @param rows - number of board rows of the game.
+ * @param cols - number of board columns of the game.
+ * @param timestamp - end of the game in milliseconds since the epoch.
+ */
+public record ScoreRecord(String player, int score, int rows, int cols, long timestamp) {
+    /**
+     * Checks whether this result ranks above another one: a higher score, or an equal score achieved earlier.
+     * @param other - result to be compared with.
+     * @return true if this result ranks above, false otherwise.
+     */
+    boolean ranksAbove(ScoreRecord other) {
+        return score != other.score ? score > other.score : timestamp < other.timestamp;
+    }
+}
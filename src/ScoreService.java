@@ -0,0 +1,71 @@
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Class performing all score file I/O on a background thread.
+ * <p>
+ * Every operation is queued on a single daemon thread and returns a CompletableFuture, so the Event Dispatch Thread
+ * never waits for the disk. Operations run in the order they were requested: a best score requested before a result
+ * is saved does not include that result.
+ */
+public class ScoreService {
+    /**
+     * Score file accessed only by the I/O thread.
+     */
+    private final ScoreFile scoreFile;
+    /**
+     * Thread performing the I/O.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Class constructor.
+     * @param scoreFile - score file to be accessed, used only by the service from now on.
+     */
+    public ScoreService(ScoreFile scoreFile) {
+        this.scoreFile = scoreFile;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "score-io");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Starts loading the score file in the background, so that later requests are answered from memory.
+     * @return future completed with the best score once loaded.
+     */
+    public CompletableFuture<Integer> preload() {
+        return bestScore();
+    }
+
+    /**
+     * Requests the best score.
+     * @return future completed with the best score, 0 if there is none.
+     */
+    public CompletableFuture<Integer> bestScore() {
+        return CompletableFuture.supplyAsync(scoreFile::readScoreFile, executor);
+    }
+
+    /**
+     * Requests the best results overall.
+     * @return future completed with up to ScoreFile.TOP_K results, best first.
+     */
+    public CompletableFuture<List<ScoreRecord>> top() {
+        return CompletableFuture.supplyAsync(scoreFile::getTop, executor);
+    }
+
+    /**
+     * Saves the result of a game in the background.
+     * @param player - name of the player.
+     * @param score - score achieved.
+     * @param rows - number of board rows of the game.
+     * @param cols - number of board columns of the game.
+     * @return future completed with true if the result was saved, false otherwise.
+     */
+    public CompletableFuture<Boolean> save(String player, int score, int rows, int cols) {
+        return CompletableFuture.supplyAsync(() -> scoreFile.writeScoreFile(player, score, rows, cols), executor);
+    }
+}
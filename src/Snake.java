@@ -11,7 +11,8 @@ public interface Snake
     /**
      * Method that defines the control method for Snake-like controllable.
      * <p>
-     * Control method has to use the Frame.setDirection() method
+     * Control method has to use the Frame.setDirection() method.
+     * It is called once per tick by the ControllerScheduler, right before the frame is advanced, and must not block.
      */
     public void control();
 }
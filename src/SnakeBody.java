@@ -0,0 +1,136 @@
+import java.util.NoSuchElementException;
+
+/**
+ * Class representing the body of a single snake as a growable circular deque of packed cell indices.
+ * <p>
+ * A cell at (row, col) is stored as row * cols + col. Adding a head and removing the tail are O(1) and allocation-free,
+ * the buffer only grows (doubling) when the snake gets longer than its capacity.
+ */
+public class SnakeBody implements SnakeView {
+    /**
+     * Number of columns of the board, used to pack and unpack the cells.
+     */
+    private final int cols;
+    /**
+     * Circular buffer of packed cells, its length is always a power of two.
+     */
+    private int[] cells;
+    /**
+     * Position of the head in the buffer.
+     */
+    private int head;
+    /**
+     * Number of segments of the snake.
+     */
+    private int size;
+
+    /**
+     * Class constructor.
+     * @param cols - number of columns of the board.
+     * @param initialCapacity - expected length of the snake.
+     */
+    public SnakeBody(int cols, int initialCapacity) {
+        this.cols = cols;
+        this.cells = new int[Integer.highestOneBit(Math.max(initialCapacity, 2) - 1) << 1];
+    }
+
+    /**
+     * Adds a new head.
+     * @param cell - packed cell of the new head.
+     */
+    public void addFirst(int cell) {
+        if (size == cells.length) {
+            grow();
+        }
+        head = (head - 1) & (cells.length - 1);
+        cells[head] = cell;
+        size++;
+    }
+
+    /**
+     * Adds a new tail segment, used when building the initial body.
+     * @param cell - packed cell of the new tail.
+     */
+    public void addLast(int cell) {
+        if (size == cells.length) {
+            grow();
+        }
+        cells[(head + size) & (cells.length - 1)] = cell;
+        size++;
+    }
+
+    /**
+     * Removes the tail.
+     * @return packed cell of the removed tail.
+     */
+    public int removeLast() {
+        if (size == 0) {
+            throw new NoSuchElementException("Snake is empty");
+        }
+        size--;
+        return cells[(head + size) & (cells.length - 1)];
+    }
+
+    /**
+     * Returns the packed cell of the head.
+     * @return packed cell of the head.
+     */
+    public int getFirst() {
+        return get(0);
+    }
+
+    /**
+     * Returns the packed cell of the segment with index "i".
+     * @param i - index of the segment, 0 is the head.
+     * @return packed cell of the segment.
+     */
+    public int get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Invalid segment index: " + i);
+        }
+        return cells[(head + i) & (cells.length - 1)];
+    }
+
+    /**
+     * Removes all segments.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Checks whether the snake has no segments.
+     * @return true if is, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int row(int i) {
+        return get(i) / cols;
+    }
+
+    @Override
+    public int col(int i) {
+        return get(i) % cols;
+    }
+
+    /**
+     * Doubles the capacity of the buffer, unrolling it so that the head is at position 0.
+     */
+    private void grow() {
+        int[] grown = new int[cells.length << 1];
+        int firstPart = cells.length - head;
+        System.arraycopy(cells, head, grown, 0, firstPart);
+        System.arraycopy(cells, 0, grown, firstPart, head);
+        cells = grown;
+        head = 0;
+    }
+}
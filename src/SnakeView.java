@@ -0,0 +1,42 @@
+/**
+ * Read-only view of a snake's body.
+ * <p>
+ * Segments are numbered from the head (index 0) to the tail (index size() - 1).
+ */
+public interface SnakeView {
+    /**
+     * Returns the number of segments of the snake.
+     * @return length of the snake, 0 if the snake is dead.
+     */
+    int size();
+
+    /**
+     * Returns the row of the segment with index "i".
+     * @param i - index of the segment, 0 is the head.
+     * @return row of the segment.
+     */
+    int row(int i);
+
+    /**
+     * Returns the column of the segment with index "i".
+     * @param i - index of the segment, 0 is the head.
+     * @return column of the segment.
+     */
+    int col(int i);
+
+    /**
+     * Returns the row of the head.
+     * @return row of the head.
+     */
+    default int headRow() {
+        return row(0);
+    }
+
+    /**
+     * Returns the column of the head.
+     * @return column of the head.
+     */
+    default int headCol() {
+        return col(0);
+    }
+}
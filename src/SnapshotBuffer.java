@@ -0,0 +1,124 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class publishing board snapshots from the tick thread to a single reading thread using triple buffering.
+ * <p>
+ * The writer fills its private back buffer and swaps it with the shared middle buffer, the reader swaps its front buffer
+ * with the middle one whenever a newer snapshot has been published. Neither side ever waits for the other.
+ * A recycled back buffer is brought up to date by replaying the cells changed during the ticks it missed,
+ * so publishing costs O(changed cells) instead of O(board). The replayed cells are kept with the snapshot,
+ * so the reader can tell which cells changed since the snapshot it held before.
+ */
+public class SnapshotBuffer {
+    /**
+     * Number of past ticks whose changed cells are remembered.
+     */
+    private static final int HISTORY = 8;
+    /**
+     * Bit of the state marking that the middle buffer holds a snapshot not seen by the reader yet.
+     */
+    private static final int FRESH = 4;
+
+    /**
+     * The three snapshot buffers.
+     */
+    private final FrameSnapshot[] buffers;
+    /**
+     * Index of the middle buffer combined with the FRESH bit.
+     */
+    private final AtomicInteger state;
+    /**
+     * Index of the buffer owned by the writer.
+     */
+    private int back;
+    /**
+     * Index of the buffer owned by the reader.
+     */
+    private int front;
+    /**
+     * Cells changed during each of the last HISTORY ticks, indexed by epoch modulo HISTORY.
+     */
+    private final IntList[] history;
+    /**
+     * Number of the tick of the snapshot last acquired by the reader.
+     */
+    private volatile long readerEpoch;
+
+    /**
+     * Class constructor, fills all buffers with the initial board state.
+     * @param rows - number of rows on the board.
+     * @param cols - number of columns on the board.
+     * @param initial - initial state of each pixel in row-major order, the snapshots use stores of the same kind.
+     * @param heads - initial packed head cell of each snake.
+     */
+    public SnapshotBuffer(int rows, int cols, BoardStore initial, int[] heads) {
+        this.buffers = new FrameSnapshot[3];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new FrameSnapshot(rows, cols, initial.createEmpty(), heads.length);
+            buffers[i].cells.copyFrom(initial);
+            System.arraycopy(heads, 0, buffers[i].heads, 0, heads.length);
+        }
+        this.history = new IntList[HISTORY];
+        for (int i = 0; i < HISTORY; i++) {
+            history[i] = new IntList(16);
+        }
+        this.back = 0;
+        this.state = new AtomicInteger(1);
+        this.front = 2;
+    }
+
+    /**
+     * Publishes the state of the board after a tick. Must only be called by the writing thread.
+     * @param pixels - current state of each pixel in row-major order.
+     * @param changed - cells changed during this tick.
+     * @param heads - packed head cell of each snake, -1 for a dead one.
+     * @param scores - score of each snake.
+     * @param epoch - number of the tick, must grow by one with every call.
+     */
+    public void publish(BoardStore pixels, IntList changed, int[] heads, int[] scores, long epoch) {
+        IntList record = history[(int) (epoch % HISTORY)];
+        record.clear();
+        for (int i = 0; i < changed.size(); i++) {
+            record.add(changed.get(i));
+        }
+
+        FrameSnapshot target = buffers[back];
+        // the reader only acquires newer snapshots, so changes since readerEpoch cover whatever it holds then
+        long from = Math.min(target.epoch, readerEpoch);
+        boolean complete = epoch - from <= HISTORY;
+        if (!complete) {
+            from = target.epoch;
+        }
+        target.changed.clear();
+        if (epoch - from > HISTORY) {
+            target.cells.copyFrom(pixels);
+        } else {
+            for (long e = from + 1; e <= epoch; e++) {
+                IntList cells = history[(int) (e % HISTORY)];
+                for (int i = 0; i < cells.size(); i++) {
+                    int cell = cells.get(i);
+                    target.cells.copyCell(pixels, cell);
+                    target.changed.add(cell);
+                }
+            }
+        }
+        System.arraycopy(heads, 0, target.heads, 0, heads.length);
+        System.arraycopy(scores, 0, target.scores, 0, scores.length);
+        target.changedSince = complete ? from : -1;
+        target.epoch = epoch;
+        back = state.getAndSet(back | FRESH) & 3;
+    }
+
+    /**
+     * Returns the most recently published snapshot. Must only be called by the reading thread.
+     * The returned snapshot stays unchanged until the next call.
+     * @return the latest snapshot.
+     */
+    public FrameSnapshot acquire() {
+        if ((state.get() & FRESH) != 0) {
+            front = state.getAndSet(front) & 3;
+            readerEpoch = buffers[front].epoch;
+        }
+        return buffers[front];
+    }
+}
@@ -0,0 +1,184 @@
+import java.util.Arrays;
+
+/**
+ * Class representing everything a tick has changed: the cells with their new states, and the events behind them.
+ * <p>
+ * The frame fills a single instance during each tick and hands it to its delta listener at the end of the tick,
+ * still holding its monitor. The delta is only valid during that call, DeltaCodec turns it into bytes that are not.
+ * Changed cells are listed once each, in ascending order.
+ */
+public class TickDelta {
+    /**
+     * Frame producing the deltas.
+     */
+    private final Frame frame;
+    /**
+     * Current state of the board.
+     */
+    private final BoardStore pixels;
+    /**
+     * Number of the tick.
+     */
+    private long epoch;
+    /**
+     * Changed cells, in ascending order without duplicates, only the first changeCount entries are valid.
+     */
+    private int[] changes = new int[16];
+    /**
+     * Number of changed cells.
+     */
+    private int changeCount;
+    /**
+     * Events of the tick, three entries each: ordinal of the DeltaEvent, index of the snake (-1 for none), argument.
+     */
+    private final IntList events = new IntList(16);
+    /**
+     * All values of DeltaEvent, indexed by ordinal.
+     */
+    private static final DeltaEvent[] EVENTS = DeltaEvent.values();
+
+    /**
+     * Class constructor.
+     * @param frame - frame producing the deltas.
+     * @param pixels - state of the board of the frame.
+     */
+    TickDelta(Frame frame, BoardStore pixels) {
+        this.frame = frame;
+        this.pixels = pixels;
+    }
+
+    /**
+     * Records an event of the current tick, called by the frame.
+     * @param event - kind of the event.
+     * @param snake - index of the snake, -1 for none.
+     * @param arg - argument of the event.
+     */
+    void event(DeltaEvent event, int snake, int arg) {
+        events.add(event.ordinal());
+        events.add(snake);
+        events.add(arg);
+    }
+
+    /**
+     * Completes the delta of a tick, called by the frame.
+     * @param epoch - number of the tick.
+     * @param changed - cells changed during the tick, may contain duplicates.
+     */
+    void finish(long epoch, IntList changed) {
+        this.epoch = epoch;
+        if (changes.length < changed.size()) {
+            changes = new int[Math.max(changed.size(), changes.length * 2)];
+        }
+        for (int i = 0; i < changed.size(); i++) {
+            changes[i] = changed.get(i);
+        }
+        Arrays.sort(changes, 0, changed.size());
+        changeCount = 0;
+        for (int i = 0; i < changed.size(); i++) {
+            if (changeCount == 0 || changes[changeCount - 1] != changes[i]) {
+                changes[changeCount++] = changes[i];
+            }
+        }
+    }
+
+    /**
+     * Forgets the events of the finished tick, called by the frame.
+     */
+    void clear() {
+        events.clear();
+        changeCount = 0;
+    }
+
+    /**
+     * Returns the number of the tick.
+     * @return tick number.
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Returns the number of changed cells.
+     * @return number of changed cells.
+     */
+    public int getChangeCount() {
+        return changeCount;
+    }
+
+    /**
+     * Returns the changed cell at position "i".
+     * @param i - position in the list of changed cells.
+     * @return packed cell (row * cols + col).
+     */
+    public int getChangedCell(int i) {
+        return changes[i];
+    }
+
+    /**
+     * Returns the new state of the changed cell at position "i".
+     * @param i - position in the list of changed cells.
+     * @return character of the cell.
+     */
+    public char getChangedState(int i) {
+        return pixels.get(changes[i]);
+    }
+
+    /**
+     * Returns the number of events.
+     * @return number of events.
+     */
+    public int getEventCount() {
+        return events.size() / 3;
+    }
+
+    /**
+     * Returns the kind of the event at position "i".
+     * @param i - position in the list of events.
+     * @return kind of the event.
+     */
+    public DeltaEvent getEvent(int i) {
+        return EVENTS[events.get(3 * i)];
+    }
+
+    /**
+     * Returns the snake of the event at position "i".
+     * @param i - position in the list of events.
+     * @return index of the snake, -1 for none.
+     */
+    public int getEventSnake(int i) {
+        return events.get(3 * i + 1);
+    }
+
+    /**
+     * Returns the argument of the event at position "i".
+     * @param i - position in the list of events.
+     * @return argument of the event, see DeltaEvent.
+     */
+    public int getEventArg(int i) {
+        return events.get(3 * i + 2);
+    }
+
+    /**
+     * Returns the number of rows on the board.
+     * @return number of rows.
+     */
+    public int getRows() {
+        return frame.getRows();
+    }
+
+    /**
+     * Returns the number of columns on the board.
+     * @return number of columns.
+     */
+    public int getCols() {
+        return frame.getCols();
+    }
+
+    /**
+     * Returns the number of snakes.
+     * @return number of snakes.
+     */
+    public int getSnakeCount() {
+        return frame.getSnakeCount();
+    }
+}
@@ -0,0 +1,155 @@
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class driving the simulation at a fixed rate, independently of how often the board is painted.
+ * <p>
+ * Each tick first lets the controllers choose their directions, then advances the Frame exactly once on a dedicated
+ * scheduler thread, then notifies the tick listener.
+ * The lateness of every tick against its ideal start time is recorded, so that jitter caused by GC or EDT load can be measured.
+ * It is published through EngineMetrics when the instrumentation is enabled.
+ */
+public class TickEngine {
+    /**
+     * Attribute which holds the frame advanced by the engine.
+     */
+    private final Frame frame;
+    /**
+     * Attribute which holds the controllers called before every tick, may be null.
+     */
+    private final ControllerScheduler controllers;
+    /**
+     * Attribute which holds the tick period in nanoseconds.
+     */
+    private final long periodNanos;
+    /**
+     * Attribute which holds the action executed after every tick, may be null.
+     */
+    private final Runnable onTick;
+    /**
+     * Scheduler running the ticks.
+     */
+    private final ScheduledExecutorService scheduler;
+    /**
+     * Handle of the scheduled tick task, null if the engine is not running.
+     */
+    private ScheduledFuture<?> task;
+    /**
+     * Ideal start time of the first tick.
+     */
+    private long startNanos;
+    /**
+     * Number of ticks executed so far.
+     */
+    private volatile long ticks;
+    /**
+     * Lateness of the ticks of this engine.
+     */
+    private final LatencyHistogram lateness = new LatencyHistogram();
+
+    /**
+     * Class constructor.
+     * @param frame - frame to be advanced.
+     * @param periodMillis - tick period in milliseconds.
+     * @param onTick - action executed after every tick, may be null.
+     */
+    public TickEngine(Frame frame, long periodMillis, Runnable onTick) {
+        this(frame, periodMillis, null, onTick);
+    }
+
+    /**
+     * Class constructor.
+     * @param frame - frame to be advanced.
+     * @param periodMillis - tick period in milliseconds.
+     * @param controllers - controllers called before every tick, may be null. The engine shuts them down when stopped.
+     * @param onTick - action executed after every tick, may be null.
+     */
+    public TickEngine(Frame frame, long periodMillis, ControllerScheduler controllers, Runnable onTick) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Tick period must be positive");
+        }
+        this.frame = frame;
+        this.controllers = controllers;
+        this.periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+        this.onTick = onTick;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "tick-engine");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Starts ticking, the first tick happens after one period.
+     */
+    public synchronized void start() {
+        if (task != null) {
+            return;
+        }
+        startNanos = System.nanoTime() + periodNanos;
+        task = scheduler.scheduleAtFixedRate(this::tick, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops ticking and releases the scheduler thread.
+     */
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel(false);
+        }
+        scheduler.shutdown();
+        if (controllers != null) {
+            controllers.shutdown();
+        }
+    }
+
+    /**
+     * Executes a single tick: runs the controllers, advances the frame, records the lateness and notifies the listener.
+     */
+    private void tick() {
+        long late = System.nanoTime() - (startNanos + ticks * periodNanos);
+        try {
+            if (controllers != null) {
+                controllers.runTick();
+            }
+            frame.tick();
+            if (onTick != null) {
+                onTick.run();
+            }
+        } catch (RuntimeException e) {
+            // an exception would silently cancel the scheduled task
+            System.out.println("Error during tick: " + e.getMessage());
+        }
+        ticks++;
+        lateness.record(late);
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.get().tickLateness.record(late);
+        }
+    }
+
+    /**
+     * Returns the number of ticks executed so far.
+     * @return number of ticks.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Returns the mean lateness of a tick against its ideal start time.
+     * @return mean lateness in nanoseconds.
+     */
+    public long getMeanLatenessNanos() {
+        return lateness.getMean();
+    }
+
+    /**
+     * Returns the largest lateness of a tick against its ideal start time.
+     * @return maximal lateness in nanoseconds.
+     */
+    public long getMaxLatenessNanos() {
+        return lateness.getMax();
+    }
+}
@@ -1,23 +1,44 @@
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.util.concurrent.ArrayBlockingQueue;
 
 /**
- * BotSnake - a Snake-like controllable thread class.
+ * UserSnake - a Snake-like controllable class.
  * Used to provide snake control to the player.
+ * <p>
+ * Key presses are queued by the Event Dispatch Thread and consumed one per tick, so that two quick turns pressed
+ * within a single tick are both executed, in two consecutive ticks.
  */
-class UserSnake extends Thread implements KeyListener, Snake {
+class UserSnake implements KeyListener, Snake {
+    /**
+     * Maximal number of key presses waiting for a tick, further presses are dropped.
+     */
+    private static final int QUEUE_CAPACITY = 4;
+
+    /**
+     * Key press waiting for a tick.
+     * @param direction - chosen direction.
+     * @param pressedNanos - System.nanoTime() of the key event.
+     */
+    private record KeyPress(char direction, long pressedNanos) {
+    }
+
     /**
      * Attribute which holds the current state of the frame.
      */
     private final Frame frame;
     /**
-     * Attribute which holds the current direction of the UserSnake.
+     * Attribute which holds the key presses not consumed yet, oldest first.
      */
-    private volatile char currentDirection = ' ';
+    private final ArrayBlockingQueue<KeyPress> presses = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
     /**
-     * Attribute which determines whether the Thread should be running.
+     * Attribute which holds the direction requested by the last consumed key press, used by the tick thread only.
      */
-    private volatile boolean running = true;
+    private char lastDirection = ' ';
+    /**
+     * Attribute which holds the latency measurements of the key presses.
+     */
+    private final InputLatency latency = new InputLatency();
 
     /**
      * Class constructor.
@@ -28,50 +49,51 @@ class UserSnake extends Thread implements KeyListener, Snake {
     }
 
     /**
-     * Implementation of run() from Thread class, defines the function which is executed by the thread upon creation.
-     * <p>
-     * In a loop calls the control() function, then sleeps for 100 milliseconds, on failure to sleep sets running to false.
+     * The control of the UserSnake.
+     * Applies the oldest queued key press, otherwise the snake moves in the last chosen direction.
+     * Presses repeating the last direction, like those generated by holding a key, do not use up a tick.
      */
     @Override
-    public void run() {
-        while (running) {
-
-            control();
-
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                running = false;
+    public void control()
+    {
+        KeyPress press;
+        while ((press = presses.poll()) != null)
+        {
+            if (press.direction() != lastDirection)
+            {
+                lastDirection = press.direction();
+                frame.setDirection(2, press.direction());
+                latency.consumed(press.pressedNanos());
+                return;
             }
         }
     }
 
     /**
-     * The control of the UserSnake.
-     * Chooses a direction towards the key pressed by the player, otherwise moves in the last chosen direction.
+     * Returns the latency measurements of the key presses.
+     * The tick listener has to call applied() and the board rendered() on them.
+     * @return the latency measurements.
      */
-    @Override
-    public void control()
-    {
-        if (currentDirection != ' ')
-        {
-            frame.setDirection(2, currentDirection);
-            currentDirection = ' ';
-        }
+    public InputLatency getInputLatency() {
+        return latency;
     }
 
     /**
-     * Sets the currentDirection based upon the key pressed.
+     * Queues the direction based upon the key pressed.
      * @param e the event to be processed
      */
     @Override
     public void keyPressed(KeyEvent e) {
+        char direction;
         switch (e.getKeyCode()) {
-            case KeyEvent.VK_UP:    currentDirection = 'N'; break;
-            case KeyEvent.VK_DOWN:  currentDirection = 'S'; break;
-            case KeyEvent.VK_LEFT:  currentDirection = 'W'; break;
-            case KeyEvent.VK_RIGHT: currentDirection = 'E'; break;
+            case KeyEvent.VK_UP:    direction = 'N'; break;
+            case KeyEvent.VK_DOWN:  direction = 'S'; break;
+            case KeyEvent.VK_LEFT:  direction = 'W'; break;
+            case KeyEvent.VK_RIGHT: direction = 'E'; break;
+            default: return;
         }
+        // KeyEvent.getWhen() is wall clock time in milliseconds, so the press is timed on arrival instead
+        presses.offer(new KeyPress(direction, System.nanoTime()));
     }
 
     /**
@@ -89,12 +111,4 @@ class UserSnake extends Thread implements KeyListener, Snake {
     @Override
     public void keyTyped(KeyEvent e) {
     }
-
-    /**
-     * Unused
-     * Sets running to false.
-     */
-    public void stopRunning() {
-        running = false;
-    }
 }
\ No newline at end of file